@@ -0,0 +1,85 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.benchmarks;
+
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing programs into CPU runner, which pushes changed pages into the memory stub.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CpuRunnerBenchmark {
+    private static final List<Short> PROGRAM = List.of((short) 0xDD, (short) 0xCB, (short) 0x12, (short) 0x06);
+
+    private StubCpuRunner cpuRunner;
+    private short[] image;
+    private int value;
+
+    @Setup
+    public void setup() {
+        cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        cpuRunner.ensureProgramSize(0x10000);
+        image = new short[0x10000];
+    }
+
+    @Benchmark
+    public void setProgramInts() {
+        cpuRunner.setProgram(0xDD, 0xCB, value++ & 0xFF, 0x06);
+    }
+
+    @Benchmark
+    public void setProgramShorts() {
+        cpuRunner.setProgram((short) 0xDD, (short) 0xCB, (short) (value++ & 0xFF), (short) 0x06);
+    }
+
+    @Benchmark
+    public void setProgramList() {
+        cpuRunner.setProgram(PROGRAM);
+    }
+
+    @Benchmark
+    public void ensureProgramSize() {
+        cpuRunner.ensureProgramSize(value++ & 0xFFFF);
+    }
+
+    @Benchmark
+    public void setByte() {
+        int address = value++ & 0xFFFF;
+        cpuRunner.setByte(address, address);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void resetProgram() {
+        cpuRunner.resetProgram(image);
+    }
+}
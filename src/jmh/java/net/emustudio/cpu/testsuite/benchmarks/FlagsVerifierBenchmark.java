@@ -0,0 +1,95 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.benchmarks;
+
+import net.emustudio.cpu.testsuite.FlagsCheck;
+import net.emustudio.cpu.testsuite.RunnerContext;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.cpu.testsuite.verifiers.FlagsVerifier;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluating and checking flags of 8-bit addition (zero, sign, carry, half-carry).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FlagsVerifierBenchmark {
+    private static final int FLAG_C = 1;
+    private static final int FLAG_H = 0x10;
+    private static final int FLAG_Z = 0x40;
+    private static final int FLAG_S = 0x80;
+
+    private FlagsVerifier<Byte> boxedVerifier;
+    private FlagsVerifier<Byte> primitiveVerifier;
+    private RunnerContext<Byte>[] contexts;
+    private int index;
+
+    private static final class AdditionFlags extends FlagsCheck<Byte, AdditionFlags> {
+
+        private AdditionFlags() {
+            expectFlagOnlyWhen(FLAG_C, (context, result) -> (result.intValue() & 0x100) != 0);
+            expectFlagOnlyWhen(FLAG_H, (context, result) ->
+                    ((context.getFirstAsInt() & 0xF) + (context.getSecondAsInt() & 0xF)) > 0xF);
+            expectFlagOnlyWhen(FLAG_Z, (context, result) -> (result.intValue() & 0xFF) == 0);
+            expectFlagOnlyWhen(FLAG_S, (context, result) -> (result.intValue() & 0x80) != 0);
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ShortMemoryStub memoryStub = new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+        StubCpuVerifier cpuVerifier = new StubCpuVerifier(new StubCpuRunner(memoryStub), memoryStub);
+
+        boxedVerifier = new FlagsVerifier<>(
+                cpuVerifier, context -> (context.getFirst() & 0xFF) + (context.getSecond() & 0xFF), new AdditionFlags()
+        );
+        primitiveVerifier = new FlagsVerifier<>(cpuVerifier, Integer::sum, new AdditionFlags());
+
+        contexts = new RunnerContext[0x10000];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = new RunnerContext<>((byte) i, (byte) (i >>> 8), 0);
+        }
+    }
+
+    @Benchmark
+    public void accept() {
+        boxedVerifier.accept(contexts[index++ & 0xFFFF]);
+    }
+
+    @Benchmark
+    public void acceptPrimitive() {
+        primitiveVerifier.accept(contexts[index++ & 0xFFFF]);
+    }
+
+    @Benchmark
+    public int expectedFlags() {
+        return primitiveVerifier.expectedFlags(contexts[index++ & 0xFFFF]);
+    }
+}
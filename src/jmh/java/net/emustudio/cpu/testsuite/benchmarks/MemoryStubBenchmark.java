@@ -0,0 +1,94 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.benchmarks;
+
+import net.emustudio.cpu.testsuite.memory.ByteMemoryStub;
+import net.emustudio.cpu.testsuite.memory.MemoryStub;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading, writing and setting memory of ByteMemoryStub and ShortMemoryStub.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemoryStubBenchmark {
+    private static final int SIZE = 0x10000;
+
+    @Param({"byte", "short"})
+    public String cellType;
+
+    private MemoryStub<?> memoryStub;
+    private short[] image;
+    private BitSet changedPage;
+    private int address;
+
+    @Setup
+    public void setup() {
+        if (cellType.equals("byte")) {
+            memoryStub = new ByteMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+        } else {
+            memoryStub = new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+        }
+        image = new short[SIZE];
+        memoryStub.setMemory(image);
+        changedPage = new BitSet();
+        changedPage.set(1);
+    }
+
+    @Benchmark
+    public Number read() {
+        return memoryStub.read(address++ & (SIZE - 1));
+    }
+
+    @Benchmark
+    public Number[] readFour() {
+        return memoryStub.read(address++ & (SIZE - 5), 4);
+    }
+
+    @Benchmark
+    public void writeByte() {
+        int position = address++ & (SIZE - 1);
+        memoryStub.writeByte(position, position);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void setMemory() {
+        memoryStub.setMemory(image);
+    }
+
+    @Benchmark
+    public void setMemoryChangedPage() {
+        image[0x100 + (address++ & 0xFF)]++;
+        memoryStub.setMemory(image, changedPage);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.benchmarks;
+
+import net.emustudio.cpu.testsuite.OperandType;
+import net.emustudio.cpu.testsuite.injectors.internal.DefaultProgramGenerator;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating programs of instructions with operands (e.g. DD CB nn 06).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProgramGeneratorBenchmark {
+
+    @Param({"byte", "word", "dword"})
+    public String operandType;
+
+    private DefaultProgramGenerator<Number> generator;
+    private OperandType type;
+    private int operand;
+
+    @Setup
+    public void setup() {
+        generator = new DefaultProgramGenerator<>();
+        generator.addOpcodes(0xDD, 0xCB);
+        switch (operandType) {
+            case "byte":
+                generator.setOperands((byte) 0x12);
+                type = OperandType.BYTE;
+                operand = 0x12;
+                break;
+            case "word":
+                generator.setOperands(0x1234);
+                type = OperandType.WORD;
+                operand = 0x1234;
+                break;
+            default:
+                generator.setOperands(0x12345678L);
+                type = OperandType.DWORD;
+                operand = 0x12345678;
+        }
+        generator.addOpcodesAfterOperands(0x06);
+    }
+
+    @Benchmark
+    public List<Short> generate() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    public short[] generateProgram() {
+        return generator.generateProgram(NumberUtils.Strategy.LITTLE_ENDIAN, type, operand);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.benchmarks;
+
+import net.emustudio.cpu.testsuite.CpuRunner;
+import net.emustudio.cpu.testsuite.memory.MemoryStub;
+import net.emustudio.emulib.plugins.cpu.CPU;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CPU runner of a trivial stub CPU, which does nothing in a step. Benchmarks therefore measure only the test suite.
+ *
+ * The stub CPU is a dynamic proxy, so benchmarks do not depend on methods of the CPU interface which are not used
+ * by the test suite.
+ */
+public class StubCpuRunner extends CpuRunner<CPU> {
+    private final int[] registers = new int[8];
+    private int flags;
+
+    public StubCpuRunner(MemoryStub<?> memoryStub) {
+        super(stubCpu(), memoryStub);
+    }
+
+    private static CPU stubCpu() {
+        List<CPU.CPUListener> listeners = new ArrayList<>();
+        ClassLoader classLoader = CPU.class.getClassLoader();
+        return (CPU) Proxy.newProxyInstance(classLoader, new Class<?>[]{CPU.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "addCPUListener":
+                    return listeners.add((CPU.CPUListener) args[0]);
+                case "step":
+                    for (CPU.CPUListener listener : listeners) {
+                        listener.runStateChanged(CPU.RunState.STATE_STOPPED_BREAK);
+                    }
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StubCpu";
+                default:
+                    Class<?> type = method.getReturnType();
+                    if (type == boolean.class) {
+                        return false;
+                    } else if (type == int.class) {
+                        return 0;
+                    } else if (type == long.class) {
+                        return 0L;
+                    }
+                    return null;
+            }
+        });
+    }
+
+    @Override
+    public int getPC() {
+        return 0;
+    }
+
+    @Override
+    public int getSP() {
+        return 0;
+    }
+
+    @Override
+    public List<Integer> getRegisters() {
+        List<Integer> result = new ArrayList<>(registers.length);
+        for (int register : registers) {
+            result.add(register);
+        }
+        return result;
+    }
+
+    @Override
+    public int[] getRegisters(int[] registers) {
+        if (registers.length != this.registers.length) {
+            registers = new int[this.registers.length];
+        }
+        System.arraycopy(this.registers, 0, registers, 0, registers.length);
+        return registers;
+    }
+
+    @Override
+    public void setRegister(int register, int value) {
+        registers[register] = value;
+    }
+
+    public int getRegister(int register) {
+        return registers[register];
+    }
+
+    @Override
+    public void setFlags(int mask) {
+        flags = mask;
+    }
+
+    @Override
+    public int getFlags() {
+        return flags;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.benchmarks;
+
+import net.emustudio.cpu.testsuite.CpuVerifier;
+import net.emustudio.cpu.testsuite.memory.MemoryStub;
+
+/**
+ * CPU verifier of the stub CPU. Flags checks only remember the checked masks, so they never fail.
+ */
+public class StubCpuVerifier extends CpuVerifier {
+    private final StubCpuRunner cpuRunner;
+    int checkedFlags;
+
+    public StubCpuVerifier(StubCpuRunner cpuRunner, MemoryStub<?> memoryStub) {
+        super(memoryStub);
+        this.cpuRunner = cpuRunner;
+    }
+
+    public void checkRegister(int register, int expected) {
+        int actual = cpuRunner.getRegister(register);
+        if (actual != expected) {
+            throw new AssertionError("Expected register " + register + "=" + expected + ", but was " + actual);
+        }
+    }
+
+    @Override
+    public void checkFlags(int mask) {
+        checkedFlags |= mask;
+    }
+
+    @Override
+    public void checkNotFlags(int mask) {
+        checkedFlags &= ~mask;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.benchmarks;
+
+import net.emustudio.cpu.testsuite.Generator;
+import net.emustudio.cpu.testsuite.OperandType;
+import net.emustudio.cpu.testsuite.TestRunner;
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single test cases and whole 8-bit sweeps of a test runner, on the stub CPU.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TestRunnerBenchmark {
+    private TestRunner<StubCpuRunner, Byte> runner;
+    private int operands;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ShortMemoryStub memoryStub = new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+        StubCpuRunner cpuRunner = new StubCpuRunner(memoryStub);
+        StubCpuVerifier cpuVerifier = new StubCpuVerifier(cpuRunner, memoryStub);
+
+        runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        runner.reuseContext();
+        runner.injectFirstAsInt((tmpRunner, first) -> tmpRunner.setRegister(0, first));
+        runner.injectSecondAsInt((tmpRunner, second) -> tmpRunner.setRegister(1, second));
+        runner.injectNoOperand(new NoOperInstr<>(0x80));
+        runner.verifyAfterTest(context -> cpuVerifier.checkRegister(0, context.getFirstAsInt()));
+    }
+
+    @Benchmark
+    public void accept() {
+        int pair = operands++;
+        runner.accept((byte) pair, (byte) (pair >>> 8));
+    }
+
+    @Benchmark
+    public void acceptOperands() {
+        int pair = operands++;
+        runner.acceptOperands(pair & 0xFF, (pair >>> 8) & 0xFF);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @SuppressWarnings("unchecked")
+    public void forAll8bitBinary() {
+        Generator.forAll8bitBinary(runner);
+    }
+}
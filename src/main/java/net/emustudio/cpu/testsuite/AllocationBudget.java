@@ -0,0 +1,267 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.jcip.annotations.NotThreadSafe;
+import net.jcip.annotations.ThreadSafe;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Budget of bytes allocated by the CPU in a single step (see CpuRunner.measureAllocations()).
+ *
+ * Bytes allocated by the current thread during cpu.step() are measured using
+ * com.sun.management.ThreadMXBean.getThreadAllocatedBytes(), and recorded per opcode (the memory cell at PC before
+ * the step). First steps of each opcode are not checked, so e.g. class initialization or lazy caches of the emulator
+ * are not counted. Each CPU runner records into its own counters, without locking; counters are merged when the
+ * budget is checked.
+ *
+ * The budget can be shared by more CPU runners, also running in parallel. It should be checked after the runners
+ * finish (e.g. in an AfterClass method of the test class).
+ */
+@SuppressWarnings("unused")
+@ThreadSafe
+public final class AllocationBudget {
+    private static final int MEASUREMENT_OVERHEAD_SAMPLES = 16;
+    private static final int WORST_OPCODES = 10;
+
+    private final long maxBytesPerStep;
+    private final int warmUpSteps;
+    private final ConcurrentLinkedQueue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Allocation statistics of a single opcode.
+     */
+    public static final class OpcodeAllocations {
+        public final int opcode;
+        public final long steps;
+        public final long stepsOverBudget;
+        public final long maxBytes;
+        public final long totalBytes;
+
+        private OpcodeAllocations(int opcode, long steps, long stepsOverBudget, long maxBytes, long totalBytes) {
+            this.opcode = opcode;
+            this.steps = steps;
+            this.stepsOverBudget = stepsOverBudget;
+            this.maxBytes = maxBytes;
+            this.totalBytes = totalBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "opcode %02x: max %d bytes, %d of %d steps over budget, %.1f bytes per step",
+                    opcode, maxBytes, stepsOverBudget, steps, (steps == 0) ? 0.0 : (double) totalBytes / steps
+            );
+        }
+    }
+
+    /**
+     * Creates new allocation budget.
+     *
+     * @param maxBytesPerStep maximal number of bytes allocated by a single step (e.g. 0 for allocation-free CPU)
+     * @param warmUpSteps number of first steps of each opcode (and each CPU runner), which are not checked
+     */
+    public AllocationBudget(long maxBytesPerStep, int warmUpSteps) {
+        if (maxBytesPerStep < 0) {
+            throw new IllegalArgumentException("Budget must be >= 0 (was " + maxBytesPerStep + ")");
+        }
+        if (warmUpSteps < 0) {
+            throw new IllegalArgumentException("Number of warm-up steps must be >= 0 (was " + warmUpSteps + ")");
+        }
+        this.maxBytesPerStep = maxBytesPerStep;
+        this.warmUpSteps = warmUpSteps;
+    }
+
+    /**
+     * Create budget for allocation-free CPU: no bytes allocated after 1000 warm-up steps of each opcode.
+     *
+     * @return allocation budget
+     */
+    public static AllocationBudget zero() {
+        return new AllocationBudget(0, 1000);
+    }
+
+    /**
+     * Create counters for a CPU runner.
+     *
+     * @return new counters
+     * @throws UnsupportedOperationException if the JVM does not support measuring of allocated memory
+     */
+    Recorder newRecorder() {
+        Recorder recorder = new Recorder();
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    /**
+     * Get allocation statistics of all measured opcodes.
+     *
+     * @return statistics per opcode, ordered by opcode
+     */
+    public List<OpcodeAllocations> getAllocations() {
+        long[][] merged = new long[4][0];
+        for (Recorder recorder : recorders) {
+            int length = recorder.steps.length;
+            if (merged[0].length < length) {
+                for (int i = 0; i < merged.length; i++) {
+                    merged[i] = Arrays.copyOf(merged[i], length);
+                }
+            }
+            for (int opcode = 0; opcode < length; opcode++) {
+                merged[0][opcode] += Math.max(0, recorder.steps[opcode] - warmUpSteps);
+                merged[1][opcode] += recorder.stepsOverBudget[opcode];
+                merged[2][opcode] = Math.max(merged[2][opcode], recorder.maxBytes[opcode]);
+                merged[3][opcode] += recorder.totalBytes[opcode];
+            }
+        }
+
+        List<OpcodeAllocations> result = new ArrayList<>();
+        for (int opcode = 0; opcode < merged[0].length; opcode++) {
+            if (merged[0][opcode] > 0) {
+                result.add(new OpcodeAllocations(
+                        opcode, merged[0][opcode], merged[1][opcode], merged[2][opcode], merged[3][opcode]
+                ));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get opcodes which allocated the most in a single step.
+     *
+     * @param count maximal number of returned opcodes
+     * @return statistics of the worst opcodes, the worst first
+     */
+    public List<OpcodeAllocations> getWorstOpcodes(int count) {
+        List<OpcodeAllocations> allocations = getAllocations();
+        allocations.sort(Comparator.comparingLong((OpcodeAllocations a) -> a.maxBytes).reversed());
+        return allocations.subList(0, Math.min(count, allocations.size()));
+    }
+
+    /**
+     * Check that no opcode exceeded the budget.
+     *
+     * @throws AssertionError with the worst opcodes, if some opcode exceeded the budget
+     */
+    public void assertWithinBudget() {
+        for (OpcodeAllocations allocations : getAllocations()) {
+            if (allocations.stepsOverBudget > 0) {
+                throw new AssertionError(toString());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(String.format(
+                "AllocationBudget{%d bytes per step, %d warm-up steps}", maxBytesPerStep, warmUpSteps
+        ));
+        for (OpcodeAllocations allocations : getWorstOpcodes(WORST_OPCODES)) {
+            result.append("\n  ").append(allocations);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Counters of a single CPU runner, not thread-safe.
+     */
+    @NotThreadSafe
+    final class Recorder {
+        private final com.sun.management.ThreadMXBean threadMXBean;
+        private final long measurementOverhead;
+
+        private long[] steps = new long[0];
+        private long[] stepsOverBudget = new long[0];
+        private long[] maxBytes = new long[0];
+        private long[] totalBytes = new long[0];
+
+        private Recorder() {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)
+                    || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+                throw new UnsupportedOperationException("Measuring of allocated memory is not supported by the JVM");
+            }
+            this.threadMXBean = (com.sun.management.ThreadMXBean) bean;
+            threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+            // bytes allocated by the measurement itself
+            long threadId = Thread.currentThread().getId();
+            long overhead = Long.MAX_VALUE;
+            for (int i = 0; i < MEASUREMENT_OVERHEAD_SAMPLES; i++) {
+                long before = threadMXBean.getThreadAllocatedBytes(threadId);
+                overhead = Math.min(overhead, threadMXBean.getThreadAllocatedBytes(threadId) - before);
+            }
+            this.measurementOverhead = overhead;
+        }
+
+        /**
+         * Run single CPU step and record bytes allocated by it.
+         *
+         * @param cpu CPU
+         * @param opcode opcode of the executed instruction (unsigned)
+         */
+        void step(CPU cpu, int opcode) {
+            long start = start();
+            cpu.step();
+            stop(opcode, start);
+        }
+
+        /**
+         * Start measuring a section of code (e.g. a CPU step) on the current thread.
+         *
+         * @return allocated bytes of the current thread, to be passed to stop()
+         */
+        long start() {
+            return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        /**
+         * Record bytes allocated by the current thread since start().
+         *
+         * @param opcode opcode of the measured section (unsigned)
+         * @param start value returned by start()
+         */
+        void stop(int opcode, long start) {
+            long bytes = Math.max(0, start() - start - measurementOverhead);
+
+            if (opcode >= steps.length) {
+                int length = Math.max(opcode + 1, 256);
+                steps = Arrays.copyOf(steps, length);
+                stepsOverBudget = Arrays.copyOf(stepsOverBudget, length);
+                maxBytes = Arrays.copyOf(maxBytes, length);
+                totalBytes = Arrays.copyOf(totalBytes, length);
+            }
+            if (steps[opcode]++ < warmUpSteps) {
+                return;
+            }
+            if (bytes > maxBytesPerStep) {
+                stepsOverBudget[opcode]++;
+            }
+            maxBytes[opcode] = Math.max(maxBytes[opcode], bytes);
+            totalBytes[opcode] += bytes;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Budget of test cases, either wall-clock time or number of test cases.
+ *
+ * The budget is consumed by {@link Generator#forBudget(Budget, OperandSpace, java.util.function.BiConsumer[])}.
+ * It can be shared by all tests in a test class (e.g. in a static field), or created for each runner.
+ */
+@SuppressWarnings("unused")
+@ThreadSafe
+public final class Budget {
+    public static final String BUDGET_PROPERTY = "cpu.testsuite.budget";
+
+    private final boolean time;
+    private final long limit;
+    private long used;
+
+    private Budget(boolean time, long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Budget must be >= 0");
+        }
+        this.time = time;
+        this.limit = limit;
+    }
+
+    public static Budget ofTime(Duration duration) {
+        return new Budget(true, Objects.requireNonNull(duration).toNanos());
+    }
+
+    /**
+     * Create budget of test cases. A test case is a run of a single runner on an operand pair.
+     *
+     * @param cases number of test cases
+     * @return budget
+     */
+    public static Budget ofCases(long cases) {
+        return new Budget(false, cases);
+    }
+
+    /**
+     * Parse budget.
+     *
+     * @param budget ISO-8601 duration (e.g. "PT60S", "PT1H"), or number of test cases
+     * @return budget
+     */
+    public static Budget parse(String budget) {
+        budget = budget.trim();
+        if (budget.toUpperCase().startsWith("P")) {
+            return ofTime(Duration.parse(budget));
+        }
+        return ofCases(Long.parseLong(budget));
+    }
+
+    /**
+     * Get budget from system property "cpu.testsuite.budget", so e.g. PR builds and nightly builds can use
+     * different budgets with the same test code.
+     *
+     * @param defaultBudget budget used if the property is not set
+     * @return budget
+     */
+    public static Budget fromProperty(Budget defaultBudget) {
+        String budget = System.getProperty(BUDGET_PROPERTY);
+        return (budget == null || budget.isBlank()) ? Objects.requireNonNull(defaultBudget) : parse(budget);
+    }
+
+    /**
+     * Determine if this is a wall-clock budget.
+     *
+     * @return true if the budget is in nanoseconds, false if it is in test cases
+     */
+    public boolean isTime() {
+        return time;
+    }
+
+    /**
+     * Get remaining budget.
+     *
+     * @return remaining nanoseconds or test cases
+     */
+    public synchronized long remaining() {
+        return Math.max(0, limit - used);
+    }
+
+    synchronized void consume(long nanos, long cases) {
+        used += time ? nanos : cases;
+    }
+
+    @Override
+    public String toString() {
+        return "Budget{" + (time ? Duration.ofNanos(limit) + ", used=" + Duration.ofNanos(used) : limit + " cases, used=" + used) + "}";
+    }
+}
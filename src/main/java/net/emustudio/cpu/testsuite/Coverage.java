@@ -0,0 +1,60 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Coverage of an operand space reached by a budget-driven sweep.
+ */
+@SuppressWarnings("unused")
+@Immutable
+public final class Coverage {
+    public final boolean exhaustive;
+    public final long executedCases;
+    public final long totalCases;
+
+    public Coverage(boolean exhaustive, long executedCases, long totalCases) {
+        this.exhaustive = exhaustive;
+        this.executedCases = executedCases;
+        this.totalCases = totalCases;
+    }
+
+    /**
+     * Get covered fraction of the operand space.
+     *
+     * Sampling sweeps (see Generator.forBudget) draw operand pairs without replacement, so executed cases are distinct.
+     *
+     * @return covered fraction (0 - 1)
+     */
+    public double getFraction() {
+        if (exhaustive || totalCases == 0) {
+            return 1.0;
+        }
+        return Math.min(1.0, (double) executedCases / totalCases);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Coverage{%s, %d of %d cases (%.4f%%)}",
+                exhaustive ? "exhaustive" : "sampled", executedCases, totalCases, getFraction() * 100
+        );
+    }
+}
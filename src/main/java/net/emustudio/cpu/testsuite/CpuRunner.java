@@ -21,8 +21,10 @@ package net.emustudio.cpu.testsuite;
 import net.emustudio.cpu.testsuite.internal.RunStateListenerStub;
 import net.emustudio.cpu.testsuite.memory.MemoryStub;
 import net.emustudio.emulib.plugins.cpu.CPU;
+import net.jcip.annotations.Immutable;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 
@@ -32,6 +34,8 @@ import static org.junit.Assert.assertEquals;
  * CPU Runner.
  *
  * This class is a wrapper around CPU and memory, and contains the environment for test execution.
+ *
+ * Implementations should override getRegisters(int[]); the default implementation allocates for each test case.
  * @param <TCpu> CPU type
  */
 @SuppressWarnings("unused")
@@ -43,7 +47,23 @@ public abstract class CpuRunner<TCpu extends CPU> {
     protected final MemoryStub<?> memoryStub;
 
     private short[] program = new short[1];
+    private final BitSet changedPages = new BitSet(); // pages of the program not yet pushed to memory stub
+    private final BitSet pagesChangedSinceRestore = new BitSet();
+    private Snapshot lastRestored;
     private CPU.RunState expectedRunState = CPU.RunState.STATE_STOPPED_BREAK;
+    private AllocationBudget.Recorder allocations;
+
+    // test runner which injected the current program and memory
+    private Object lastInjectedBy;
+
+    // batch execution (see TestRunner.runBatch)
+    private boolean layingOutBatch;
+    private int programOrigin;
+    private int programEnd;
+    private int batchEnd;
+    private int programWrites;
+    private int memoryWrites;
+    private int batchOverwrites;
 
     public CpuRunner(TCpu cpu, MemoryStub<?> memoryStub) {
         this.cpu = Objects.requireNonNull(cpu);
@@ -55,16 +75,19 @@ public abstract class CpuRunner<TCpu extends CPU> {
         length = Math.max(length, MIN_MEMORY_SIZE);
         if (program.length < length) {
             this.program = Arrays.copyOf(this.program, length);
-            resetProgram();
+            lastRestored = null;
+            if (!layingOutBatch) {
+                resetProgram();
+            }
         }
     }
 
     public void setProgram(int... program) {
-        ensureProgramSize(program.length);
+        ensureProgramSize(programOrigin + program.length);
         for (int i = 0; i < program.length; i++) {
-            this.program[i] = (short)program[i];
+            this.program[programOrigin + i] = (short)program[i];
         }
-        resetProgram();
+        programWritten(program.length);
     }
 
     public void setProgram(List<? extends Number> program) {
@@ -78,49 +101,333 @@ public abstract class CpuRunner<TCpu extends CPU> {
     }
 
     public void setProgram(short... program) {
-        ensureProgramSize(program.length);
-        System.arraycopy(program, 0, this.program, 0, program.length);
-        resetProgram();
+        ensureProgramSize(programOrigin + program.length);
+        System.arraycopy(program, 0, this.program, programOrigin, program.length);
+        programWritten(program.length);
     }
 
     public void resetProgram(short... program) {
         this.program = program;
+        programChanged(0, (program.length >>> MemoryStub.PAGE_BITS) + 1);
+        lastRestored = null;
+        memoryWrites++;
         resetProgram();
     }
 
     public void setByte(int address, int value) {
         ensureProgramSize(address + 1);
         program[address] = (short)(value & 0xFF);
+        programChanged(address >>> MemoryStub.PAGE_BITS, (address >>> MemoryStub.PAGE_BITS) + 1);
+        memoryWrites++;
+        if (address < batchEnd) {
+            batchOverwrites++;
+        }
+        if (address < memoryStub.getSize()) {
+            memoryStub.writeByte(address, value & 0xFF);
+        }
+    }
+
+    private void programWritten(int length) {
+        programWrites++;
+        programEnd = programOrigin + length;
+        if (length > 0) {
+            programChanged(programOrigin >>> MemoryStub.PAGE_BITS, ((programEnd - 1) >>> MemoryStub.PAGE_BITS) + 1);
+        }
+        if (!layingOutBatch) {
+            resetProgram();
+        }
+    }
+
+    private void programChanged(int fromPage, int toPage) {
+        changedPages.set(fromPage, toPage);
+        pagesChangedSinceRestore.set(fromPage, toPage);
     }
 
     private void resetProgram() {
-        memoryStub.setMemory(program);
+        memoryStub.setMemory(program, changedPages);
+        changedPages.clear();
+    }
+
+    /**
+     * Get test runner which injected the current program and memory.
+     *
+     * @return test runner, or null if the memory was restored since the injection
+     */
+    Object getLastInjectedBy() {
+        return lastInjectedBy;
+    }
+
+    void setLastInjectedBy(Object testRunner) {
+        lastInjectedBy = testRunner;
+    }
+
+    /**
+     * Get number of programs written so far (see setProgram()).
+     *
+     * @return number of written programs
+     */
+    int getProgramWrites() {
+        return programWrites;
+    }
+
+    /**
+     * Get number of memory writes so far, which are not programs (see setByte() and resetProgram()).
+     *
+     * @return number of memory writes
+     */
+    int getMemoryWrites() {
+        return memoryWrites;
+    }
+
+    /**
+     * Get number of memory writes below the end of the executed batch so far (see executeBatch()).
+     *
+     * @return number of batch overwrites
+     */
+    int getBatchOverwrites() {
+        return batchOverwrites;
+    }
+
+    /**
+     * Start laying out a batch of instructions. Programs are written at the program origin, and memory stub is not
+     * updated until the batch is executed.
+     */
+    void beginBatch() {
+        layingOutBatch = true;
+        programOrigin = 0;
+        programEnd = 0;
+    }
+
+    void setProgramOrigin(int origin) {
+        programOrigin = origin;
+    }
+
+    /**
+     * Get address right after the last written program.
+     *
+     * @return end of the last written program
+     */
+    int getProgramEnd() {
+        return programEnd;
+    }
+
+    /**
+     * Push laid out batch into memory stub. Then, writes below the batch end are counted as batch overwrites.
+     *
+     * @param end end of the batch
+     */
+    void executeBatch(int end) {
+        layingOutBatch = false;
+        programOrigin = 0;
+        batchEnd = end;
+        resetProgram();
+    }
+
+    void endBatch() {
+        layingOutBatch = false;
+        programOrigin = 0;
+        batchEnd = 0;
+    }
+
+    /**
+     * Get word reading strategy of the memory (see NumberUtils.Strategy), used for multi-byte operands.
+     *
+     * @return word reading strategy
+     */
+    public int getWordReadingStrategy() {
+        return memoryStub.getWordReadingStrategy();
     }
 
     public void reset() {
         cpu.reset();
     }
 
+    /**
+     * Capture current state of the CPU and memory.
+     *
+     * It is useful when preparing a test fixture is expensive (e.g. a prepared stack or many register presets). The
+     * fixture is prepared once, and restored before each test case (see TestRunner.restoreBeforeEachTest()).
+     *
+     * @return snapshot of the CPU and memory
+     */
+    public Snapshot snapshot() {
+        Number[] cells = memoryStub.read(0, memoryStub.getSize());
+        short[] memory = new short[Math.max(cells.length, program.length)];
+        System.arraycopy(program, 0, memory, 0, program.length);
+        int mask = (memoryStub.getDataType() == Byte.class) ? 0xFF : 0xFFFF;
+        for (int i = 0; i < cells.length; i++) {
+            memory[i] = (short) (cells[i].intValue() & mask);
+        }
+        return new Snapshot(memory, saveCpuState());
+    }
+
+    /**
+     * Restore state of the CPU and memory from a snapshot.
+     *
+     * Only memory pages which differ from the snapshot are copied.
+     *
+     * @param snapshot snapshot taken by snapshot() of this runner
+     */
+    public void restore(Snapshot snapshot) {
+        short[] memory = snapshot.memory;
+        int pageSize = 1 << MemoryStub.PAGE_BITS;
+        if (snapshot == lastRestored && program.length == memory.length) {
+            // program equals the snapshot, except pages changed since then
+            for (int page = pagesChangedSinceRestore.nextSetBit(0); page >= 0;
+                 page = pagesChangedSinceRestore.nextSetBit(page + 1)) {
+                int from = page << MemoryStub.PAGE_BITS;
+                System.arraycopy(memory, from, program, from, Math.min(pageSize, memory.length - from));
+                changedPages.set(page);
+            }
+        } else {
+            restoreAllPages(memory);
+        }
+        pagesChangedSinceRestore.clear();
+        lastRestored = snapshot;
+        resetProgram();
+        lastInjectedBy = null;
+        restoreCpuState(snapshot.cpuState);
+    }
+
+    private void restoreAllPages(short[] memory) {
+        if (program.length < memory.length) {
+            program = Arrays.copyOf(program, memory.length);
+        }
+        // program might have grown since the snapshot; cells beyond the snapshot are restored to 0
+        int pageSize = 1 << MemoryStub.PAGE_BITS;
+        for (int from = 0; from < program.length; from += pageSize) {
+            int to = Math.min(from + pageSize, program.length);
+            int snapshotTo = Math.max(from, Math.min(to, memory.length));
+            boolean differs = (snapshotTo > from)
+                    && Arrays.mismatch(program, from, snapshotTo, memory, from, snapshotTo) >= 0;
+            for (int i = snapshotTo; i < to && !differs; i++) {
+                differs = (program[i] != 0);
+            }
+            if (differs) {
+                if (snapshotTo > from) {
+                    System.arraycopy(memory, from, program, from, snapshotTo - from);
+                }
+                Arrays.fill(program, snapshotTo, to, (short) 0);
+                changedPages.set(from >>> MemoryStub.PAGE_BITS);
+            }
+        }
+    }
+
+    /**
+     * Capture state of the CPU.
+     *
+     * By default, values of getRegisters() and getFlags() are captured. Override it (together with restoreCpuState)
+     * if register indexes of getRegisters() and setRegister() differ, or if more state should be captured.
+     *
+     * @return state of the CPU
+     */
+    protected Object saveCpuState() {
+        List<Integer> registers = getRegisters();
+        int[] state = new int[registers.size() + 1];
+        state[0] = getFlags();
+        for (int i = 0; i < registers.size(); i++) {
+            state[i + 1] = registers.get(i);
+        }
+        return state;
+    }
+
+    /**
+     * Restore state of the CPU captured by saveCpuState().
+     *
+     * By default, CPU is reset, and then registers and flags are set.
+     *
+     * @param state state of the CPU
+     */
+    protected void restoreCpuState(Object state) {
+        int[] registers = (int[]) state;
+        reset();
+        for (int i = 1; i < registers.length; i++) {
+            setRegister(i - 1, registers[i]);
+        }
+        setFlags(registers[0]);
+    }
+
     public void expectRunState(CPU.RunState runState) {
         this.expectedRunState = Objects.requireNonNull(runState);
     }
 
+    /**
+     * Measure bytes allocated by each following step, and record them into given budget per opcode.
+     *
+     * Allocations are measured on the thread which runs the step; the runner must not be used by more threads.
+     *
+     * @param budget allocation budget; it can be shared by more CPU runners
+     * @throws UnsupportedOperationException if the JVM does not support measuring of allocated memory
+     */
+    public void measureAllocations(AllocationBudget budget) {
+        this.allocations = budget.newRecorder();
+    }
+
     public void step() {
-        cpu.step();
+        if (allocations == null) {
+            cpu.step();
+        } else {
+            int pc = getPC();
+            int opcode = (pc >= 0 && pc < program.length) ? (program[pc] & 0xFFFF) : 0;
+            allocations.step(cpu, opcode);
+        }
         System.out.flush();
-        assertEquals("PC=" + getPC(), expectedRunState, runStateListener.runState);
+        if (runStateListener.runState != expectedRunState) {
+            assertEquals("PC=" + getPC(), expectedRunState, runStateListener.runState);
+        }
     }
 
     public abstract int getPC();
 
     public abstract int getSP();
 
+    /**
+     * Get values of registers, captured before each test case (see RunnerContext.getRegister()).
+     *
+     * Unless getRegisters(int[]) is overridden, it is called for each test case.
+     *
+     * @return values of registers
+     */
     public abstract List<Integer> getRegisters();
 
+    /**
+     * Copy values of registers (the same as getRegisters() returns) into an array.
+     *
+     * It is called by TestRunner before each test case. IMPORTANT: the default implementation calls getRegisters(),
+     * which creates a new list of boxed values, so every test case allocates. Subclasses should override this method
+     * and copy the registers directly, in order to run test cases without allocations.
+     *
+     * @param registers array to be filled, if it has the right size
+     * @return filled array (a new one if the given one has wrong size)
+     */
+    public int[] getRegisters(int[] registers) {
+        List<Integer> values = getRegisters();
+        if (registers.length != values.size()) {
+            registers = new int[values.size()];
+        }
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = values.get(i);
+        }
+        return registers;
+    }
+
     public abstract void setRegister(int register, int value);
 
     public abstract void setFlags(int mask);
 
     public abstract int getFlags();
 
+    /**
+     * Snapshot of the CPU and memory state.
+     */
+    @Immutable
+    public static final class Snapshot {
+        private final short[] memory;
+        private final Object cpuState;
+
+        private Snapshot(short[] memory, Object cpuState) {
+            this.memory = memory;
+            this.cpuState = cpuState;
+        }
+    }
 }
@@ -57,6 +57,16 @@ public abstract class CpuVerifier {
         );
     }
 
+    public void checkMemoryFourBytes(int address, int expected) {
+        Byte[] dword = NumberUtils.numbersToBytes(memoryStub.read(address, 4));
+        int actual = NumberUtils.readInt(dword, memoryStub.getWordReadingStrategy());
+
+        assertEquals(
+                String.format("Expected dword mem[%04x]=%08x, but was %08x", address, expected, actual),
+                expected, actual
+        );
+    }
+
     public abstract void checkFlags(int mask);
 
     public abstract void checkNotFlags(int mask);
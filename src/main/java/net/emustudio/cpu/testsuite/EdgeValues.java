@@ -0,0 +1,87 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+/**
+ * Dictionary of boundary operand values.
+ *
+ * Contains values which usually reveal bugs in flags computation:
+ * - zero and all ones (carry, borrow, zero flag)
+ * - signed overflow boundary, e.g. 0x7F/0x80 or 0x7FFF/0x8000 (sign and overflow flags)
+ * - nibble boundaries, e.g. 0x0F/0x10 or 0x0FFF/0x1000 (half carry)
+ * - walking-one and walking-zero bit patterns (parity, bit operations)
+ * - +-1 neighbours of all above values
+ */
+@SuppressWarnings("unused")
+public final class EdgeValues {
+    private static final int[] EDGES_8BIT = compute(8);
+    private static final int[] EDGES_16BIT = compute(16);
+    private static final int[] EDGES_32BIT = compute(32);
+
+    private EdgeValues() {
+    }
+
+    /**
+     * Get boundary values of given width.
+     *
+     * @param bits operand width in bits (1 - 32)
+     * @return boundary values (without duplicates), sorted as unsigned numbers
+     */
+    public static int[] of(int bits) {
+        switch (bits) {
+            case 8:
+                return EDGES_8BIT.clone();
+            case 16:
+                return EDGES_16BIT.clone();
+            case 32:
+                return EDGES_32BIT.clone();
+            default:
+                return compute(bits);
+        }
+    }
+
+    private static int[] compute(int bits) {
+        if (bits < 1 || bits > 32) {
+            throw new IllegalArgumentException("Bits must be in range 1 - 32");
+        }
+        long mask = (1L << bits) - 1;
+
+        TreeSet<Long> values = new TreeSet<>();
+        values.add(0L);
+        values.add(mask);
+        values.add((1L << (bits - 1)) - 1);
+        values.add(1L << (bits - 1));
+        for (int k = 4; k < bits; k += 4) {
+            values.add((1L << k) - 1);
+            values.add(1L << k);
+        }
+        for (int b = 0; b < bits; b++) {
+            values.add(1L << b);
+            values.add(mask ^ (1L << b));
+        }
+        for (long value : new ArrayList<>(values)) {
+            values.add((value + 1) & mask);
+            values.add((value - 1) & mask);
+        }
+        return values.stream().mapToInt(Long::intValue).toArray();
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Failures collected by test runners which continue after a failed verification (see TestRunner.collectFailures()).
+ *
+ * Failed operand pairs are recorded in a compressed bitmap over the operand space (see PairBitmap), so even a sweep
+ * which fails everywhere takes little memory. For each verifier, the number of
+ * failures and a bounded number of failed contexts are kept. Failures are also counted per instruction and per flag.
+ *
+ * Verifiers are identified by the instruction and their position among verifiers of the test runner, e.g.
+ * "instruction: [80][][], verifier #1 (FlagsVerifier)". So copies of a test runner (e.g. in parallel workers) share the same key.
+ *
+ * The report can be shared by more test runners, also running in parallel.
+ */
+@SuppressWarnings("unused")
+@ThreadSafe
+public final class FailureReport {
+    private final int maxSamplesPerVerifier;
+
+    private final PairBitmap failedPairs = new PairBitmap();
+    private final Map<String, VerifierFailures> failuresPerVerifier = new LinkedHashMap<>();
+    private final Map<String, Long> failuresPerInstruction = new LinkedHashMap<>();
+    private final long[] failuresPerFlag = new long[32];
+    private long failures;
+
+    private static final class VerifierFailures {
+        private long count;
+        private final List<String> samples = new ArrayList<>();
+    }
+
+    /**
+     * Creates new failure report.
+     *
+     * @param maxSamplesPerVerifier maximal number of failed contexts kept for each verifier
+     */
+    public FailureReport(int maxSamplesPerVerifier) {
+        if (maxSamplesPerVerifier < 0) {
+            throw new IllegalArgumentException("Number of samples must be >= 0 (was " + maxSamplesPerVerifier + ")");
+        }
+        this.maxSamplesPerVerifier = maxSamplesPerVerifier;
+    }
+
+    /**
+     * Record a failed verification.
+     *
+     * @param instruction tested instruction
+     * @param verifierIndex position of the verifier among verifiers of the test runner
+     * @param verifier failed verifier
+     * @param context context of the test case (copied only if kept)
+     * @param failure verification failure
+     * @param wrongFlags flags which differ from the expected ones (0 if not known)
+     */
+    synchronized void record(String instruction, int verifierIndex, Object verifier, RunnerContext<?> context,
+                             Throwable failure, int wrongFlags) {
+        failures++;
+        failedPairs.add(OperandPair.pack(context.getFirstAsInt(), context.getSecondAsInt()));
+
+        failuresPerInstruction.merge(instruction, 1L, Long::sum);
+        VerifierFailures verifierFailures = failuresPerVerifier.computeIfAbsent(
+                verifierKey(instruction, verifierIndex, verifier), key -> new VerifierFailures()
+        );
+        verifierFailures.count++;
+        if (verifierFailures.samples.size() < maxSamplesPerVerifier) {
+            verifierFailures.samples.add(instruction + ": " + context.copy() + ": " + failure.getMessage());
+        }
+        for (int flag = 0; flag < 32; flag++) {
+            if ((wrongFlags & (1 << flag)) != 0) {
+                failuresPerFlag[flag]++;
+            }
+        }
+    }
+
+    /**
+     * Get key of a verifier, which identifies it in the report and in a failed test case (see Shrinker).
+     *
+     * @param instruction instruction description
+     * @param verifierIndex position of the verifier in the test runner
+     * @param verifier verifier
+     * @return verifier key
+     */
+    static String verifierKey(String instruction, int verifierIndex, Object verifier) {
+        String key = instruction + ", verifier #" + verifierIndex;
+        Class<?> verifierClass = verifier.getClass();
+        if (verifierClass.isSynthetic() || verifierClass.isAnonymousClass()) {
+            return key; // lambda names are not stable
+        }
+        return key + " (" + verifierClass.getSimpleName() + ")";
+    }
+
+    /**
+     * Determine if a test case with given operands failed.
+     *
+     * @param first first operand (unsigned)
+     * @param second second operand (unsigned)
+     * @return true if the test case failed in some test runner
+     */
+    public synchronized boolean hasFailed(int first, int second) {
+        return failedPairs.contains(OperandPair.pack(first, second));
+    }
+
+    /**
+     * Get number of failed test cases (distinct operand pairs).
+     *
+     * @return number of failed test cases
+     */
+    public synchronized long getFailedCases() {
+        return failedPairs.getCardinality();
+    }
+
+    /**
+     * Get number of failed verifications.
+     *
+     * @return number of failed verifications
+     */
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    public synchronized Map<String, Long> getFailuresPerVerifier() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        failuresPerVerifier.forEach((verifier, verifierFailures) -> result.put(verifier, verifierFailures.count));
+        return Collections.unmodifiableMap(result);
+    }
+
+    public synchronized Map<String, Long> getFailuresPerInstruction() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failuresPerInstruction));
+    }
+
+    /**
+     * Get number of failures of each flag.
+     *
+     * @return map of flag mask to number of failures
+     */
+    public synchronized Map<Integer, Long> getFailuresPerFlag() {
+        Map<Integer, Long> result = new TreeMap<>();
+        for (int flag = 0; flag < 32; flag++) {
+            if (failuresPerFlag[flag] > 0) {
+                result.put(1 << flag, failuresPerFlag[flag]);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Get kept failed contexts of a verifier.
+     *
+     * @param verifier verifier (as returned in getFailuresPerVerifier())
+     * @return descriptions of failed test cases
+     */
+    public synchronized List<String> getSamples(String verifier) {
+        VerifierFailures verifierFailures = failuresPerVerifier.get(verifier);
+        return (verifierFailures == null) ? List.of() : List.copyOf(verifierFailures.samples);
+    }
+
+    /**
+     * Throw an AssertionError with the report, if there are any failures.
+     */
+    public void assertNoFailures() {
+        if (getFailures() > 0) {
+            throw new AssertionError(toString());
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder result = new StringBuilder(String.format(
+                "FailureReport{%d failed cases, %d failed verifications}", failedPairs.getCardinality(), failures
+        ));
+        failuresPerInstruction.forEach((instruction, count) -> result
+                .append("\n  ").append(instruction).append(": ").append(count));
+        failuresPerVerifier.forEach((verifier, verifierFailures) -> {
+            result.append("\n  ").append(verifier).append(": ").append(verifierFailures.count);
+            verifierFailures.samples.forEach(sample -> result.append("\n    ").append(sample));
+        });
+        for (int flag = 0; flag < 32; flag++) {
+            if (failuresPerFlag[flag] > 0) {
+                result.append(String.format("%n  flag %x: %d", 1 << flag, failuresPerFlag[flag]));
+            }
+        }
+        return result.toString();
+    }
+}
@@ -18,58 +18,254 @@
  */
 package net.emustudio.cpu.testsuite;
 
-import java.util.Random;
+import net.emustudio.cpu.testsuite.internal.FanOut;
+import net.emustudio.cpu.testsuite.internal.ParallelSweep;
+import net.emustudio.cpu.testsuite.internal.SatisfyingValues;
+import net.emustudio.cpu.testsuite.internal.SweepCheckpoint;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 @SuppressWarnings("unused")
 public class Generator {
     private static final int MAX_16BIT_VALUE = 0xFFFF;
-    private static int randomTests = 25;
+    private static final ThreadLocal<Replay> REPLAY = new ThreadLocal<>();
+    private static final long WARMUP_NANOS = 100_000_000L;
+    private static final int WARMUP_CASES = 1000;
+    private static final int PARTITION_SAMPLES = 65536;
+
+    // global configuration; generators read it once when they start, possibly from worker threads
+    private static volatile int randomTests = 25;
+    private static volatile int shrinkLimit = 256;
+    private static volatile int parallelism = Runtime.getRuntime().availableProcessors();
+    private static volatile SeededRandom random = new SeededRandom(SeededRandom.defaultSeed());
+    private static volatile Path checkpointDirectory = defaultCheckpointDirectory();
+    private static final ThreadLocal<String> SWEEP_CALLER = new ThreadLocal<>(); // caller of a fanned-out generator
+    private static volatile Ordering ordering = Ordering.NATURAL;
+
+    /**
+     * Order in which exhaustive generators visit operands.
+     */
+    public enum Ordering {
+        /**
+         * Operands are visited in ascending order.
+         */
+        NATURAL,
+
+        /**
+         * Operands are visited in Gray-code order, and every other row of a binary sweep is visited backwards.
+         * Therefore two consecutive test cases differ in a single bit of a single operand, so incremental
+         * injection (see TestRunner.injectIncrementally()) re-runs the smallest number of injectors.
+         */
+        GRAY
+    }
+
+    /**
+     * Random test case. All runners get the same operands, computed from the seeded random and case index.
+     */
+    @FunctionalInterface
+    private interface RandomCase {
+        void run(OperandPairConsumer[] runners, SeededRandom random, long index);
+    }
+
+    private static final class Replay {
+        private final SeededRandom random;
+        private final long index;
+
+        private Replay(SeededRandom random, long index) {
+            this.random = random;
+            this.index = index;
+        }
+    }
 
     public static void setRandomTestsCount(int randomTests) {
         Generator.randomTests = randomTests;
     }
 
+    /**
+     * Set maximal number of test re-executions used for shrinking operands of a failed random test case.
+     *
+     * When a random test case fails, its operands are shrunk towards simpler values (closer to 0, with fewer set
+     * bits) which still fail, and the minimal failing test case is reported.
+     *
+     * @param shrinkLimit maximal number of re-executions (default 256); 0 disables shrinking
+     */
+    public static void setShrinkLimit(int shrinkLimit) {
+        if (shrinkLimit < 0) {
+            throw new IllegalArgumentException("Shrink limit must be >= 0");
+        }
+        Generator.shrinkLimit = shrinkLimit;
+    }
+
+    /**
+     * Set the seed of random test cases.
+     *
+     * By default, the seed is taken from system property "cpu.testsuite.seed", or it is random if the property
+     * is not set.
+     *
+     * @param seed the seed
+     */
+    public static void setSeed(long seed) {
+        Generator.random = new SeededRandom(seed);
+    }
+
+    /**
+     * Get seeded random used by "forSome" generators on current thread.
+     *
+     * @return seeded random (of replayed test case, if a replay is running)
+     */
+    public static SeededRandom getRandom() {
+        Replay replay = REPLAY.get();
+        return (replay == null) ? random : replay.random;
+    }
+
+    /**
+     * Set number of worker threads used by the "InParallel" generators.
+     *
+     * @param parallelism number of worker threads (default is number of available processors)
+     */
+    public static void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be >= 1");
+        }
+        Generator.parallelism = parallelism;
+    }
+
+    /**
+     * Set order in which exhaustive generators (forAll8bitBinary, forAll16bitBinary, forAll8bitUnary,
+     * forAll16bitUnary, and their parallel variants) visit operands.
+     *
+     * @param ordering operands ordering (default is NATURAL)
+     */
+    public static void setOrdering(Ordering ordering) {
+        Generator.ordering = Objects.requireNonNull(ordering);
+    }
+
+    /**
+     * Set directory for checkpoints of long exhaustive sweeps (16-bit binary "forAll" generators).
+     *
+     * Progress of the sweep is saved periodically; when the sweep is interrupted, the next run of the same sweep
+     * (the same generator, parameters, instructions of the runners and calling test class and method) resumes from
+     * the last checkpoint. Line numbers are not part of the sweep identity, so editing the test class does not
+     * discard the progress. When the sweep completes, its checkpoint is deleted.
+     *
+     * A sweep which cannot be told apart from another sweep already run by the JVM (e.g. two sweeps of lambda
+     * runners with the same parameters in a test method) fails, instead of resuming from a wrong checkpoint.
+     *
+     * By default, the directory is taken from system property "cpu.testsuite.checkpoints", or checkpoints are
+     * disabled if the property is not set.
+     *
+     * @param checkpointDirectory checkpoint directory, or null to disable checkpoints
+     */
+    public static void setCheckpointDirectory(Path checkpointDirectory) {
+        Generator.checkpointDirectory = checkpointDirectory;
+    }
+
+    /**
+     * Run all pairs of 8-bit operands.
+     *
+     * If all runners are commutative (see TestRunner.commutative()), only pairs with first &lt;= second are run.
+     *
+     * @param runners test runners
+     */
     @SafeVarargs
     public static void forAll8bitBinary(BiConsumer<Byte, Byte>... runners) {
-        for (int i = 0; i < 256; i++) {
-            for (int j = i; j < 256; j++) {
-                for (BiConsumer<Byte, Byte> runner : runners) {
-                    runner.accept((byte) i, (byte) j);
-                }
-            }
+        OperandPairConsumer[] consumers = bytes(runners);
+        boolean symmetric = isCommutative(consumers);
+        boolean gray = (ordering == Ordering.GRAY);
+        for (int row = 0; row < 256; row++) {
+            sweepRow(consumers, gray, row, 256, 0, 0, symmetric);
         }
     }
 
+    /**
+     * Parallel variant of forAll8bitBinary.
+     *
+     * @param runnersFactory factory of runners, called once per worker thread
+     * @see #forAll16bitBinaryInParallel(int, int, RunnersFactory)
+     */
+    public static void forAll8bitBinaryInParallel(RunnersFactory<Byte> runnersFactory) {
+        boolean gray = (ordering == Ordering.GRAY);
+        new ParallelSweep<>(OperandType.BYTE, runnersFactory).run(parallelism, 0, 256,
+                (consumers, row) -> sweepRow(consumers, gray, row, 256, 0, 0, isCommutative(consumers)));
+    }
+
     @SafeVarargs
     public static void forSome8bitBinary(BiConsumer<Byte, Byte>... runners) {
-        Random random = new Random();
-        for (int k = 0; k < randomTests; k++) {
-            for (BiConsumer<Byte, Byte> runner : runners) {
-                runner.accept((byte) random.nextInt(256), (byte) random.nextInt(256));
+        forSome(bytes(runners), Generator::some8bitBinary);
+    }
+
+    /**
+     * Parallel variant of forSome8bitBinary.
+     *
+     * Workers split the range of case indexes; each case uses the same random operands as in the sequential variant.
+     *
+     * @param runnersFactory factory of runners, called once per worker thread
+     */
+    public static void forSome8bitBinaryInParallel(RunnersFactory<Byte> runnersFactory) {
+        forSomeInParallel(OperandType.BYTE, runnersFactory, Generator::some8bitBinary);
+    }
+
+    /**
+     * Run all pairs of 8-bit boundary values (see EdgeValues), followed by random test cases.
+     *
+     * It finds most of flag bugs with a fraction of test cases needed by forAll8bitBinary.
+     *
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public static void forEdges8bitBinary(BiConsumer<Byte, Byte>... runners) {
+        OperandPairConsumer[] consumers = bytes(runners);
+        forEdgesBinary(consumers, EdgeValues.of(8));
+        forSome(consumers, Generator::some8bitBinary);
+    }
+
+    /**
+     * Run all 8-bit boundary values (see EdgeValues), followed by random test cases.
+     *
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public static void forEdges8bitUnary(BiConsumer<Byte, Byte>... runners) {
+        OperandPairConsumer[] consumers = bytes(runners);
+        forEdgesUnary(consumers, EdgeValues.of(8));
+        forSome(consumers, (caseRunners, random, index) -> {
+            int k = (int) random.nextLong(index) & 0xFF;
+            for (OperandPairConsumer runner : caseRunners) {
+                runner.acceptOperands(k, 0);
             }
-        }
+        });
     }
 
     @SafeVarargs
     public static void forAll8bitBinaryWhichEqual(BiConsumer<Byte, Byte>... runners) {
+        OperandPairConsumer[] consumers = bytes(runners);
         for (int i = 0; i < 256; i++) {
-            for (BiConsumer<Byte, Byte> runner : runners) {
-                runner.accept((byte) i, (byte) i);
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(i, i);
             }
         }
     }
 
     @SafeVarargs
     public static void forSome8bitBinaryWhichEqual(BiConsumer<Byte, Byte>... runners) {
-        Random random = new Random();
-        for (int i = 0; i < randomTests; i++) {
-            for (BiConsumer<Byte, Byte> runner : runners) {
-                int k = random.nextInt(256);
-                runner.accept((byte) k, (byte) k);
+        forSome(bytes(runners), (consumers, random, index) -> {
+            int k = (int) random.nextLong(index) & 0xFF;
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(k, k);
             }
-        }
+        });
     }
 
     @SafeVarargs
@@ -81,17 +277,29 @@ public class Generator {
             throw new IllegalArgumentException("Second start from must be <= " + MAX_16BIT_VALUE);
         }
 
-        for (int i = firstStartFrom; i < 65536; i++) {
-            for (int j = secondStartFrom; j < 65536; j++) {
-                for (BiConsumer<Integer, Integer> runner : runners) {
-                    runner.accept(i, j);
-                }
-            }
-        }
+        OperandPairConsumer[] consumers = words(runners);
+        boolean symmetric = (firstStartFrom == secondStartFrom) && isCommutative(consumers);
+        boolean gray = (ordering == Ordering.GRAY);
+        SweepCheckpoint checkpoint = checkpoint(
+                "forAll16bitBinary", () -> Arrays.asList(runners), firstStartFrom, secondStartFrom, ordering
+        );
+        checkpoint.sweep(gray ? 0 : firstStartFrom, 65536,
+                row -> sweepRow(consumers, gray, row, 65536, firstStartFrom, secondStartFrom, symmetric));
     }
 
-    @SafeVarargs
-    public static void forSome16bitBinary(int firstStartFrom, int secondStartFrom, BiConsumer<Integer, Integer>... runners) {
+    /**
+     * Parallel variant of forAll16bitBinary.
+     *
+     * The range of first operands is split into shards, which are run in a ForkJoin pool. Each worker thread
+     * creates its own runners using given factory. The first verification failure cancels all workers and it is
+     * re-thrown.
+     *
+     * @param firstStartFrom first operand start value
+     * @param secondStartFrom second operand start value
+     * @param runnersFactory factory of runners, called once per worker thread
+     */
+    public static void forAll16bitBinaryInParallel(int firstStartFrom, int secondStartFrom,
+                                                   RunnersFactory<Integer> runnersFactory) {
         if (firstStartFrom > MAX_16BIT_VALUE) {
             throw new IllegalArgumentException("First start from must be <= " + MAX_16BIT_VALUE);
         }
@@ -99,20 +307,69 @@ public class Generator {
             throw new IllegalArgumentException("Second start from must be <= " + MAX_16BIT_VALUE);
         }
 
-        Random random = new Random();
-        for (int i = 0; i < randomTests; i++) {
-            for (BiConsumer<Integer, Integer> runner : runners) {
-                int first = random.nextInt(MAX_16BIT_VALUE);
-                if (first < firstStartFrom) {
-                    first = firstStartFrom;
+        boolean gray = (ordering == Ordering.GRAY);
+        SweepCheckpoint checkpoint = checkpoint(
+                "forAll16bitBinary", runnersFactory::createRunners, firstStartFrom, secondStartFrom, ordering
+        );
+        new ParallelSweep<>(OperandType.WORD, runnersFactory).run(parallelism, gray ? 0 : firstStartFrom, 65536, checkpoint, (consumers, row) -> {
+            boolean symmetric = (firstStartFrom == secondStartFrom) && isCommutative(consumers);
+            sweepRow(consumers, gray, row, 65536, firstStartFrom, secondStartFrom, symmetric);
+        });
+    }
+
+    public static void forAll16bitBinaryInParallel(RunnersFactory<Integer> runnersFactory) {
+        forAll16bitBinaryInParallel(0, 0, runnersFactory);
+    }
+
+    public static void forAll16bitBinaryFirstSatisfyingInParallel(Predicate<Integer> predicate,
+                                                                  RunnersFactory<Integer> runnersFactory) {
+        SatisfyingValues firsts = SatisfyingValues.of16bit(predicate);
+        SweepCheckpoint checkpoint = checkpoint(
+                "forAll16bitBinaryFirstSatisfying", runnersFactory::createRunners, firsts
+        );
+        new ParallelSweep<>(OperandType.WORD, runnersFactory).run(parallelism, 0, firsts.size(), checkpoint, (consumers, k) -> {
+            int i = firsts.get(k);
+            for (int j = 0; j < 65536; j++) {
+                for (OperandPairConsumer runner : consumers) {
+                    runner.acceptOperands(i, j);
                 }
-                int second = random.nextInt(MAX_16BIT_VALUE);
-                if (second < secondStartFrom) {
-                    second = secondStartFrom;
+            }
+        });
+    }
+
+    public static void forAll16bitBinaryBothSatisfyingInParallel(Predicate<Integer> firstP, Predicate<Integer> secondP,
+                                                                 RunnersFactory<Integer> runnersFactory) {
+        SatisfyingValues firsts = SatisfyingValues.of16bit(firstP);
+        SatisfyingValues seconds = SatisfyingValues.of16bit(secondP);
+        SweepCheckpoint checkpoint = checkpoint(
+                "forAll16bitBinaryBothSatisfying", runnersFactory::createRunners, firsts, seconds
+        );
+        new ParallelSweep<>(OperandType.WORD, runnersFactory).run(parallelism, 0, firsts.size(), checkpoint, (consumers, k) -> {
+            int i = firsts.get(k);
+            boolean symmetric = (firsts == seconds) && isCommutative(consumers);
+            for (int l = symmetric ? k : 0; l < seconds.size(); l++) {
+                int j = seconds.get(l);
+                for (OperandPairConsumer runner : consumers) {
+                    runner.acceptOperands(i, j);
                 }
-                runner.accept(first, second);
             }
-        }
+        });
+    }
+
+    @SafeVarargs
+    public static void forSome16bitBinary(int firstStartFrom, int secondStartFrom, BiConsumer<Integer, Integer>... runners) {
+        forSome(words(runners), some16bitBinary(firstStartFrom, secondStartFrom));
+    }
+
+    /**
+     * Parallel variant of forSome16bitBinary.
+     *
+     * Workers split the range of case indexes; each case uses the same random operands as in the sequential variant.
+     *
+     * @param runnersFactory factory of runners, called once per worker thread
+     */
+    public static void forSome16bitBinaryInParallel(RunnersFactory<Integer> runnersFactory) {
+        forSomeInParallel(OperandType.WORD, runnersFactory, some16bitBinary(0, 0));
     }
 
     @SafeVarargs
@@ -138,105 +395,142 @@ public class Generator {
     @SafeVarargs
     public static void forAll16bitBinaryFirstSatisfying(Predicate<Integer> predicate,
                                                         BiConsumer<Integer, Integer>... runners) {
-        for (int i = 0; i < 65536; i++) {
-            if (predicate.test(i)) {
-                for (int j = 0; j < 65536; j++) {
-                    for (BiConsumer<Integer, Integer> runner : runners) {
-                        runner.accept(i, j);
-                    }
+        OperandPairConsumer[] consumers = words(runners);
+        SatisfyingValues firsts = SatisfyingValues.of16bit(predicate);
+        SweepCheckpoint checkpoint = checkpoint(
+                "forAll16bitBinaryFirstSatisfying", () -> Arrays.asList(runners), firsts
+        );
+        checkpoint.sweep(0, firsts.size(), k -> {
+            int i = firsts.get(k);
+            for (int j = 0; j < 65536; j++) {
+                for (OperandPairConsumer runner : consumers) {
+                    runner.acceptOperands(i, j);
                 }
             }
-        }
+        });
     }
 
     @SafeVarargs
     public static void forSome16bitBinaryFirstSatisfying(Predicate<Integer> predicate,
                                                          BiConsumer<Integer, Integer>... runners) {
-        Random random = new Random();
-        for (int i = 0; i < randomTests; i++) {
-            for (BiConsumer<Integer, Integer> runner : runners) {
-                int first = random.nextInt(MAX_16BIT_VALUE);
-                while (!predicate.test(first)) {
-                    first = random.nextInt(MAX_16BIT_VALUE);
-                }
-                runner.accept(first, random.nextInt(MAX_16BIT_VALUE));
+        SatisfyingValues firsts = SatisfyingValues.of16bit(predicate);
+        forSome(words(runners), (consumers, random, index) -> {
+            long bits = random.nextLong(index);
+            int first = firsts.sample(bits);
+            int second = (int) bits & MAX_16BIT_VALUE;
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(first, second);
             }
-        }
+        });
     }
 
     @SafeVarargs
     public static void forSome16bitBinaryBothSatisfying(Predicate<Integer> firstP, Predicate<Integer> secondP,
                                                         BiConsumer<Integer, Integer>... runners) {
-        Random random = new Random();
-        for (int i = 0; i < randomTests; i++) {
-            for (BiConsumer<Integer, Integer> runner : runners) {
-                int first = random.nextInt(MAX_16BIT_VALUE);
-                while (!firstP.test(first)) {
-                    first = random.nextInt(MAX_16BIT_VALUE);
-                }
-                int second = random.nextInt(MAX_16BIT_VALUE);
-                while (!secondP.test(second)) {
-                    second = random.nextInt(MAX_16BIT_VALUE);
-                }
-                runner.accept(first, second);
+        SatisfyingValues firsts = SatisfyingValues.of16bit(firstP);
+        SatisfyingValues seconds = SatisfyingValues.of16bit(secondP);
+        forSome(words(runners), (consumers, random, index) -> {
+            long bits = random.nextLong(index);
+            int first = firsts.sample(bits);
+            int second = seconds.sample(bits << 32);
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(first, second);
             }
-        }
+        });
     }
 
     @SafeVarargs
     public static void forAll16bitBinaryBothSatisfying(Predicate<Integer> firstP, Predicate<Integer> secondP,
                                                        BiConsumer<Integer, Integer>... runners) {
-        for (int i = 0; i < 65536; i++) {
-            if (firstP.test(i)) {
-                for (int j = 0; j < 65536; j++) {
-                    if (secondP.test(j)) {
-                        for (BiConsumer<Integer, Integer> runner : runners) {
-                            runner.accept(i, j);
-                        }
-                    }
+        OperandPairConsumer[] consumers = words(runners);
+        SatisfyingValues firsts = SatisfyingValues.of16bit(firstP);
+        SatisfyingValues seconds = SatisfyingValues.of16bit(secondP);
+        boolean symmetric = (firsts == seconds) && isCommutative(consumers);
+        SweepCheckpoint checkpoint = checkpoint(
+                "forAll16bitBinaryBothSatisfying", () -> Arrays.asList(runners), firsts, seconds
+        );
+        checkpoint.sweep(0, firsts.size(), k -> {
+            int i = firsts.get(k);
+            for (int l = symmetric ? k : 0; l < seconds.size(); l++) {
+                int j = seconds.get(l);
+                for (OperandPairConsumer runner : consumers) {
+                    runner.acceptOperands(i, j);
                 }
             }
-        }
+        });
+    }
+
+    /**
+     * Run all pairs of 16-bit boundary values (see EdgeValues), followed by random test cases.
+     *
+     * It finds most of flag bugs with a fraction of test cases needed by forAll16bitBinary.
+     *
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public static void forEdges16bitBinary(BiConsumer<Integer, Integer>... runners) {
+        OperandPairConsumer[] consumers = words(runners);
+        forEdgesBinary(consumers, EdgeValues.of(16));
+        forSome(consumers, some16bitBinary(0, 0));
+    }
+
+    /**
+     * Run all 16-bit boundary values (see EdgeValues), followed by random test cases.
+     *
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public static void forEdges16bitUnary(BiConsumer<Integer, Integer>... runners) {
+        OperandPairConsumer[] consumers = words(runners);
+        forEdgesUnary(consumers, EdgeValues.of(16));
+        forSome(consumers, (caseRunners, random, index) -> {
+            int k = (int) random.nextLong(index) & MAX_16BIT_VALUE;
+            for (OperandPairConsumer runner : caseRunners) {
+                runner.acceptOperands(k, 0);
+            }
+        });
     }
 
     @SafeVarargs
     public static void forAll16bitBinaryWhichEqual(BiConsumer<Integer, Integer>... runners) {
+        OperandPairConsumer[] consumers = words(runners);
         for (int i = 0; i < 65536; i++) {
-            for (BiConsumer<Integer, Integer> runner : runners) {
-                runner.accept(i, i);
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(i, i);
             }
         }
     }
 
     @SafeVarargs
     public static void forSome16bitBinaryWhichEqual(BiConsumer<Integer, Integer>... runners) {
-        Random random = new Random();
-        for (int i = 0; i < randomTests; i++) {
-            for (BiConsumer<Integer, Integer> runner : runners) {
-                int k = random.nextInt(MAX_16BIT_VALUE);
-                runner.accept(k, k);
+        forSome(words(runners), (consumers, random, index) -> {
+            int k = (int) random.nextLong(index) & MAX_16BIT_VALUE;
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(k, k);
             }
-        }
+        });
     }
 
     @SafeVarargs
     public static void forAll8bitUnary(BiConsumer<Byte, Byte>... runners) {
-        for (int i = 0; i < 256; i++) {
-            for (BiConsumer<Byte, Byte> runner : runners) {
-                runner.accept((byte) i, (byte) 0);
+        OperandPairConsumer[] consumers = bytes(runners);
+        boolean gray = (ordering == Ordering.GRAY);
+        for (int k = 0; k < 256; k++) {
+            int i = gray ? toGray(k) : k;
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(i, 0);
             }
         }
     }
 
     @SafeVarargs
     public static void forSome8bitUnary(BiConsumer<Byte, Byte>... runners) {
-        Random random = new Random();
-        for (int i = 0; i < randomTests; i++) {
-            for (BiConsumer<Byte, Byte> runner : runners) {
-                int k = random.nextInt(256);
-                runner.accept((byte) k, (byte) 0);
+        forSome(bytes(runners), (consumers, random, index) -> {
+            int k = (int) random.nextLong(index) & 0xFF;
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(k, 0);
             }
-        }
+        });
     }
 
     @SafeVarargs
@@ -246,16 +540,16 @@ public class Generator {
 
     @SafeVarargs
     public static void forSome16bitUnary(int firstStartFrom, BiConsumer<Integer, Integer>... runners) {
-        Random random = new Random();
-        for (int i = 0; i < randomTests; i++) {
-            for (BiConsumer<Integer, Integer> runner : runners) {
-                int first = random.nextInt(MAX_16BIT_VALUE + 1);
-                if (first < firstStartFrom) {
-                    first += firstStartFrom;
-                }
-                runner.accept(first, 0);
-            }
+        if (firstStartFrom > MAX_16BIT_VALUE) {
+            throw new IllegalArgumentException("First start from must be <= " + MAX_16BIT_VALUE);
         }
+
+        forSome(words(runners), (consumers, random, index) -> {
+            int first = firstStartFrom + SeededRandom.bounded(random.nextLong(index), 65536 - firstStartFrom);
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(first, 0);
+            }
+        });
     }
 
     @SafeVarargs
@@ -264,13 +558,585 @@ public class Generator {
             throw new IllegalArgumentException("First start from must be <=" + MAX_16BIT_VALUE);
         }
 
-        for (int i = firstStartFrom; i <= MAX_16BIT_VALUE; i++) {
-            for (BiConsumer<Integer, Integer> runner : runners) {
-                runner.accept(i, 0);
+        OperandPairConsumer[] consumers = words(runners);
+        boolean gray = (ordering == Ordering.GRAY);
+        for (int k = gray ? 0 : firstStartFrom; k <= MAX_16BIT_VALUE; k++) {
+            int i = gray ? toGray(k) : k;
+            if (i >= firstStartFrom) {
+                for (OperandPairConsumer runner : consumers) {
+                    runner.acceptOperands(i, 0);
+                }
             }
         }
     }
 
+    /**
+     * Run operand space within given budget.
+     *
+     * A short warm-up (random test cases) measures throughput of the runners. If the whole space fits into the
+     * remaining budget, it is enumerated exhaustively; otherwise random test cases are run until the budget is
+     * consumed. Random test cases are drawn without replacement: the space is visited with a random stride
+     * (coprime with the space size) from a random offset, so no operand pair is tested twice. The reached coverage
+     * is printed and returned.
+     *
+     * A test case is a run of a single runner, so each operand pair consumes as many cases of the budget as there are
+     * runners. The returned coverage counts operand pairs.
+     *
+     * @param budget time or test cases budget; it is consumed by this sweep
+     * @param space operand space
+     * @param runners test runners
+     * @param <TOperand> operands type (Byte or Integer)
+     * @return reached coverage
+     */
+    @SafeVarargs
+    public static <TOperand extends Number> Coverage forBudget(Budget budget, OperandSpace<TOperand> space,
+                                                               BiConsumer<TOperand, TOperand>... runners) {
+        OperandPairConsumer[] consumers = OperandPairConsumer.of(space.getOperandType(), Arrays.asList(runners));
+        long size = space.size();
+        if (size == 0) {
+            return new Coverage(true, 0, 0);
+        }
+        Replay replay = REPLAY.get();
+        SeededRandom random = (replay != null) ? replay.random : Generator.random;
+
+        // index -1 is not used by test cases
+        long offset = Long.remainderUnsigned(random.nextLong(-1, 0), size);
+        long stride = coprimeStride(random.nextLong(-1, 1), size);
+        RandomCase sample = (caseRunners, ignored, index) -> {
+            long position = Long.remainderUnsigned(Long.remainderUnsigned(index, size) * stride, size);
+            long pair = space.get(Long.remainderUnsigned(position + offset, size));
+            int first = OperandPair.first(pair);
+            int second = OperandPair.second(pair);
+            for (OperandPairConsumer runner : caseRunners) {
+                runner.acceptOperands(first, second);
+            }
+        };
+
+        if (replay != null) {
+            runRandomCase(consumers, replay.random, replay.index, sample);
+            return new Coverage(false, 1, size);
+        }
+
+        long casesPerPair = Math.max(1, consumers.length);
+        long start = System.nanoTime();
+        long warmupCases = 0;
+        if (budget.isTime() || size * casesPerPair > budget.remaining()) {
+            long warmupLimit = Math.min(WARMUP_CASES, budget.isTime() ? size : budget.remaining() / casesPerPair);
+            while (warmupCases < warmupLimit && System.nanoTime() - start < WARMUP_NANOS) {
+                runRandomCase(consumers, random, warmupCases++, sample);
+            }
+        }
+        long warmupNanos = System.nanoTime() - start;
+        budget.consume(warmupNanos, warmupCases * casesPerPair);
+
+        double nanosPerCase = (warmupCases == 0) ? 0 : (double) warmupNanos / warmupCases;
+        double exhaustiveCost = budget.isTime() ? size * nanosPerCase : size * casesPerPair;
+
+        Coverage coverage;
+        start = System.nanoTime();
+        if (exhaustiveCost <= budget.remaining()) {
+            space.stream().forEach(pair -> {
+                int first = OperandPair.first(pair);
+                int second = OperandPair.second(pair);
+                for (OperandPairConsumer runner : consumers) {
+                    runner.acceptOperands(first, second);
+                }
+            });
+            budget.consume(System.nanoTime() - start, size * casesPerPair);
+            coverage = new Coverage(true, size, size);
+        } else {
+            long index = warmupCases;
+            long remaining = budget.remaining();
+            if (budget.isTime()) {
+                long deadline = start + remaining;
+                while (index < size && System.nanoTime() < deadline) {
+                    for (long end = Math.min(index + 64, size); index < end; index++) {
+                        runRandomCase(consumers, random, index, sample);
+                    }
+                }
+            } else {
+                for (long end = Math.min(index + remaining / casesPerPair, size); index < end; index++) {
+                    runRandomCase(consumers, random, index, sample);
+                }
+            }
+            budget.consume(System.nanoTime() - start, (index - warmupCases) * casesPerPair);
+            coverage = new Coverage(index == size, index, size);
+        }
+        System.out.println("Budget plan for " + space + ": " + coverage);
+        return coverage;
+    }
+
+    /**
+     * Get a stride which visits each position of the space once, before it repeats.
+     *
+     * @param bits random value
+     * @param size space size (at most 2^32, so stride * position does not overflow)
+     * @return stride coprime with the size
+     */
+    private static long coprimeStride(long bits, long size) {
+        long stride = Long.remainderUnsigned(bits, size);
+        while (gcd(stride, size) != 1) {
+            stride = (stride + 1 == size) ? 1 : stride + 1;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Run test cases selected from equivalence classes of 8-bit operand pairs.
+     *
+     * Operand pairs are partitioned by flags expected by FlagsVerifiers of the runners (see
+     * FlagsCheck.expectFlagOnlyWhen). From each class, given number of cases is run, and also both cases at one
+     * boundary of each pair of neighbouring classes. Flag predicates are evaluated with flags = 0 and without
+     * registers, so they should depend only on operands and the result.
+     *
+     * @param casesPerPartition number of cases from each class
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public static void forPartitions8bitBinary(int casesPerPartition, BiConsumer<Byte, Byte>... runners) {
+        OperandPairConsumer[] consumers = bytes(runners);
+        long[] plan = new Partitioner(OperandType.BYTE, consumers)
+                .plan(OperandSpace.binary8().stream(), casesPerPartition, false);
+        forPairs(consumers, plan);
+    }
+
+    @SafeVarargs
+    public static void forPartitions8bitUnary(int casesPerPartition, BiConsumer<Byte, Byte>... runners) {
+        OperandPairConsumer[] consumers = bytes(runners);
+        long[] plan = new Partitioner(OperandType.BYTE, consumers)
+                .plan(OperandSpace.unary8().stream(), casesPerPartition, true);
+        forPairs(consumers, plan);
+    }
+
+    /**
+     * Run test cases selected from equivalence classes of 16-bit operand pairs.
+     *
+     * Classes are found among all pairs of boundary values (see EdgeValues) and 65536 random pairs.
+     *
+     * @param casesPerPartition number of cases from each class
+     * @param runners test runners
+     * @see #forPartitions8bitBinary(int, BiConsumer[])
+     */
+    @SafeVarargs
+    public static void forPartitions16bitBinary(int casesPerPartition, BiConsumer<Integer, Integer>... runners) {
+        OperandPairConsumer[] consumers = words(runners);
+        int[] edges = EdgeValues.of(16);
+        SeededRandom random = getRandom();
+        LongStream candidates = LongStream.concat(
+                IntStream.of(edges).boxed().flatMapToLong(first -> IntStream.of(edges).mapToLong(
+                        second -> OperandPair.pack(first, second)
+                )),
+                LongStream.range(0, PARTITION_SAMPLES).map(random::nextLong).map(
+                        bits -> OperandPair.pack((int) (bits >>> 32) & MAX_16BIT_VALUE, (int) bits & MAX_16BIT_VALUE)
+                )
+        );
+        long[] plan = new Partitioner(OperandType.WORD, consumers).plan(candidates, casesPerPartition, false);
+        forPairs(consumers, plan);
+    }
+
+    /**
+     * Run test cases selected from equivalence classes of 32-bit operand pairs.
+     *
+     * Classes are found among all pairs of boundary values (see EdgeValues) and 65536 random pairs, stratified by
+     * magnitude (see forSome32bitBinary).
+     *
+     * @param casesPerPartition number of cases from each class
+     * @param runners test runners
+     * @see #forPartitions8bitBinary(int, BiConsumer[])
+     */
+    @SafeVarargs
+    public static void forPartitions32bitBinary(int casesPerPartition, BiConsumer<Long, Long>... runners) {
+        OperandPairConsumer[] consumers = dwords(runners);
+        int[] edges = EdgeValues.of(32);
+        SeededRandom random = getRandom();
+        LongStream candidates = LongStream.concat(
+                IntStream.of(edges).boxed().flatMapToLong(first -> IntStream.of(edges).mapToLong(
+                        second -> OperandPair.pack(first, second)
+                )),
+                LongStream.range(0, PARTITION_SAMPLES).map(
+                        index -> OperandPair.pack(
+                                stratified32(random.nextLong(index, 0)), stratified32(random.nextLong(index, 1))
+                        )
+                )
+        );
+        long[] plan = new Partitioner(OperandType.DWORD, consumers).plan(candidates, casesPerPartition, false);
+        forPairs(consumers, plan);
+    }
+
+    /**
+     * Run random pairs of 32-bit operands.
+     *
+     * Operands are stratified by magnitude: bit length of each operand (0 - 32) is chosen uniformly, so small
+     * and large values are equally represented.
+     *
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public static void forSome32bitBinary(BiConsumer<Long, Long>... runners) {
+        forSome(dwords(runners), Generator::some32bitBinary);
+    }
+
+    @SafeVarargs
+    public static void forSome32bitUnary(BiConsumer<Long, Long>... runners) {
+        forSome(dwords(runners), (consumers, random, index) -> {
+            int first = stratified32(random.nextLong(index));
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(first, 0);
+            }
+        });
+    }
+
+    /**
+     * Run all pairs of 32-bit boundary values (see EdgeValues), followed by random test cases
+     * (see forSome32bitBinary).
+     *
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public static void forEdges32bitBinary(BiConsumer<Long, Long>... runners) {
+        OperandPairConsumer[] consumers = dwords(runners);
+        forEdgesBinary(consumers, EdgeValues.of(32));
+        forSome(consumers, Generator::some32bitBinary);
+    }
+
+    @SafeVarargs
+    public static void forEdges32bitUnary(BiConsumer<Long, Long>... runners) {
+        OperandPairConsumer[] consumers = dwords(runners);
+        forEdgesUnary(consumers, EdgeValues.of(32));
+        forSome32bitUnary(runners);
+    }
+
+    @SafeVarargs
+    public static void forPartitions16bitUnary(int casesPerPartition, BiConsumer<Integer, Integer>... runners) {
+        OperandPairConsumer[] consumers = words(runners);
+        long[] plan = new Partitioner(OperandType.WORD, consumers)
+                .plan(OperandSpace.unary16().stream(), casesPerPartition, true);
+        forPairs(consumers, plan);
+    }
+
+    /**
+     * Run a generator for each test runner separately, and concurrently.
+     *
+     * Runners passed to a generator share single CPU, so they are run one after another. This method runs the
+     * generator once per runner instead, on worker threads (see setParallelism()). Runners are created by the factory
+     * once per worker thread, so runners of concurrent generators run on different CPUs (e.g. use
+     * TestPool.runners()). The factory must create runners in the same order on each call.
+     *
+     * All runners are run, even if some of them fail. Failures are aggregated per runner, into single AssertionError.
+     *
+     * <pre>{@code
+     * Generator.forEachRunnerConcurrently(pool.runners(test -> List.of(
+     *     test.run(0x97), test.run(0x90), test.run(0x91), test.run(0x92)
+     * )), Generator::forAll8bitBinary);
+     * }</pre>
+     *
+     * @param runnersFactory factory of test runners
+     * @param generator generator run for each runner (e.g. {@code Generator::forAll8bitBinary})
+     * @param <TOperand> operands type (Byte, Integer or Long)
+     */
+    @SuppressWarnings("unchecked")
+    public static <TOperand extends Number> void forEachRunnerConcurrently(RunnersFactory<TOperand> runnersFactory,
+                                                                           Consumer<BiConsumer<TOperand, TOperand>[]> generator) {
+        if (REPLAY.get() != null) {
+            generator.accept(runnersFactory.createRunners().toArray(new BiConsumer[0]));
+            return;
+        }
+        String caller = (checkpointDirectory == null) ? null : caller();
+        new FanOut<>(runnersFactory, (runners, index) -> {
+            SWEEP_CALLER.set((caller == null) ? null : caller + " runner #" + index);
+            try {
+                generator.accept(runners);
+            } finally {
+                SWEEP_CALLER.remove();
+            }
+        }).run(parallelism);
+    }
+
+    /**
+     * Re-execute single random test case.
+     *
+     * All "forSome" generators called by the sweep on current thread will use given seed and run only the test case
+     * with given index. Seed and index are printed when a random test case fails.
+     *
+     * @param seed seed of the failed run
+     * @param index index of the failed test case
+     * @param sweep the sweep which failed (e.g. {@code () -> forSome8bitBinary(test.run(0x80))})
+     */
+    public static void replay(long seed, long index, Runnable sweep) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Index must be >= 0");
+        }
+
+        Replay previous = REPLAY.get();
+        REPLAY.set(new Replay(new SeededRandom(seed), index));
+        try {
+            sweep.run();
+        } finally {
+            if (previous == null) {
+                REPLAY.remove();
+            } else {
+                REPLAY.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Open checkpoint of a sweep.
+     *
+     * The sweep is identified by the calling test class and method, the generator, its parameters and instructions
+     * of the runners. If the sweep cannot be told apart from another sweep (see SweepCheckpoint.open()), it fails.
+     *
+     * @param sweep generator name
+     * @param runners runners of the sweep (called only if checkpoints are enabled)
+     * @param parameters generator parameters
+     * @return checkpoint of the sweep
+     */
+    private static SweepCheckpoint checkpoint(String sweep, Supplier<List<?>> runners, Object... parameters) {
+        Path directory = checkpointDirectory;
+        if (directory == null) {
+            return SweepCheckpoint.NONE;
+        }
+        String caller = SWEEP_CALLER.get();
+        if (caller == null) {
+            caller = caller();
+        }
+        String sweepId = caller + " " + sweep + Arrays.toString(parameters) + " " + identify(runners.get());
+        return SweepCheckpoint.open(directory, sweepId);
+    }
+
+    /**
+     * Find the test method which runs a generator. Frames of the test suite and of the JDK (e.g. ForkJoin workers)
+     * are skipped.
+     *
+     * @return class and method name of the caller
+     */
+    private static String caller() {
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> frames
+                .filter(frame -> {
+                    CodeSource codeSource = frame.getDeclaringClass().getProtectionDomain().getCodeSource();
+                    return codeSource != null && !codeSource.equals(Generator.class.getProtectionDomain().getCodeSource());
+                })
+                .findFirst()
+                .map(frame -> frame.getClassName() + "#" + frame.getMethodName())
+                .orElseThrow(() -> new IllegalStateException(
+                        "Could not find the test which runs the sweep, so it cannot be checkpointed"
+                )));
+    }
+
+    private static String identify(List<?> runners) {
+        StringJoiner result = new StringJoiner(", ", "{", "}");
+        for (Object runner : runners) {
+            Class<?> runnerClass = runner.getClass();
+            if (runner instanceof TestRunner) {
+                result.add(((TestRunner<?, ?>) runner).instruction());
+            } else if (runnerClass.isSynthetic() || runnerClass.isAnonymousClass()) {
+                result.add("?"); // lambda names are not stable
+            } else {
+                result.add(runnerClass.getName());
+            }
+        }
+        return result.toString();
+    }
+
+    private static Path defaultCheckpointDirectory() {
+        String directory = System.getProperty("cpu.testsuite.checkpoints");
+        return (directory == null || directory.isBlank()) ? null : Paths.get(directory);
+    }
+
+    private static void some8bitBinary(OperandPairConsumer[] runners, SeededRandom random, long index) {
+        long bits = random.nextLong(index);
+        int first = (int) bits & 0xFF;
+        int second = (int) (bits >>> 8) & 0xFF;
+        for (OperandPairConsumer runner : runners) {
+            runner.acceptOperands(first, second);
+        }
+    }
+
+    private static void some32bitBinary(OperandPairConsumer[] runners, SeededRandom random, long index) {
+        int first = stratified32(random.nextLong(index, 0));
+        int second = stratified32(random.nextLong(index, 1));
+        for (OperandPairConsumer runner : runners) {
+            runner.acceptOperands(first, second);
+        }
+    }
+
+    private static int stratified32(long bits) {
+        int length = SeededRandom.bounded(bits, 33);
+        if (length == 0) {
+            return 0;
+        }
+        long highestBit = 1L << (length - 1);
+        return (int) (highestBit | (bits & (highestBit - 1)));
+    }
+
+    private static RandomCase some16bitBinary(int firstStartFrom, int secondStartFrom) {
+        if (firstStartFrom > MAX_16BIT_VALUE) {
+            throw new IllegalArgumentException("First start from must be <= " + MAX_16BIT_VALUE);
+        }
+        if (secondStartFrom > MAX_16BIT_VALUE) {
+            throw new IllegalArgumentException("Second start from must be <= " + MAX_16BIT_VALUE);
+        }
+
+        return (runners, random, index) -> {
+            long bits = random.nextLong(index);
+            int first = firstStartFrom + SeededRandom.bounded(bits, 65536 - firstStartFrom);
+            int second = secondStartFrom + SeededRandom.bounded(bits << 32, 65536 - secondStartFrom);
+            for (OperandPairConsumer runner : runners) {
+                runner.acceptOperands(first, second);
+            }
+        };
+    }
+
+    private static void forEdgesBinary(OperandPairConsumer[] runners, int[] edges) {
+        if (REPLAY.get() != null) {
+            return; // only the random case is replayed
+        }
+        for (int first : edges) {
+            for (int second : edges) {
+                for (OperandPairConsumer runner : runners) {
+                    runner.acceptOperands(first, second);
+                }
+            }
+        }
+    }
+
+    private static void forEdgesUnary(OperandPairConsumer[] runners, int[] edges) {
+        if (REPLAY.get() != null) {
+            return; // only the random case is replayed
+        }
+        for (int first : edges) {
+            for (OperandPairConsumer runner : runners) {
+                runner.acceptOperands(first, 0);
+            }
+        }
+    }
+
+    private static void forSome(OperandPairConsumer[] runners, RandomCase randomCase) {
+        Replay replay = REPLAY.get();
+        if (replay != null) {
+            runRandomCase(runners, replay.random, replay.index, randomCase);
+            return;
+        }
+
+        SeededRandom random = Generator.random;
+        long count = randomTests;
+        for (long index = 0; index < count; index++) {
+            runRandomCase(runners, random, index, randomCase);
+        }
+    }
+
+    private static <TOperand extends Number> void forSomeInParallel(OperandType operandType,
+                                                                    RunnersFactory<TOperand> runnersFactory,
+                                                                    RandomCase randomCase) {
+        if (REPLAY.get() != null) {
+            forSome(OperandPairConsumer.of(operandType, runnersFactory.createRunners()), randomCase);
+            return;
+        }
+
+        SeededRandom random = Generator.random;
+        new ParallelSweep<>(operandType, runnersFactory).run(parallelism, 0, randomTests,
+                (consumers, index) -> runRandomCase(consumers, random, index, randomCase));
+    }
+
+    private static void runRandomCase(OperandPairConsumer[] runners, SeededRandom random, long index,
+                                      RandomCase randomCase) {
+        try {
+            randomCase.run(runners, random, index);
+        } catch (Throwable e) {
+            System.err.println(String.format(
+                    "Random test case failed (seed=0x%016x, case=%d). Reproduce with -D%s=0x%016x, or with " +
+                            "Generator.replay(0x%016xL, %d, () -> ...)",
+                    random.getSeed(), index, SeededRandom.SEED_PROPERTY, random.getSeed(), random.getSeed(), index
+            ));
+            Throwable shrunk = e;
+            for (OperandPairConsumer runner : runners) {
+                if (runner instanceof TestRunner && ((TestRunner<?, ?>) runner).getLastFailure() == e) {
+                    TestRunner<?, ?> failed = (TestRunner<?, ?>) runner;
+                    shrunk = Shrinker.shrink(failed, failed.getLastFirst(), failed.getLastSecond(), e, shrinkLimit);
+                    break;
+                }
+            }
+            if (shrunk instanceof Error) {
+                throw (Error) shrunk;
+            } else if (shrunk instanceof RuntimeException) {
+                throw (RuntimeException) shrunk;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Run a single row of a binary sweep: all second operands for a single first operand.
+     *
+     * @param runners test runners
+     * @param gray if true, operands are in Gray-code order and odd rows are visited backwards
+     * @param row row index
+     * @param size number of operand values (power of 2)
+     * @param firstStartFrom minimal first operand
+     * @param secondStartFrom minimal second operand
+     * @param symmetric if true, only pairs with first &lt;= second are run
+     */
+    private static void sweepRow(OperandPairConsumer[] runners, boolean gray, int row, int size,
+                                 int firstStartFrom, int secondStartFrom, boolean symmetric) {
+        int first = gray ? toGray(row) : row;
+        if (first < firstStartFrom) {
+            return;
+        }
+        boolean backwards = gray && (row & 1) != 0;
+        for (int column = 0; column < size; column++) {
+            int second = backwards ? toGray(size - 1 - column) : (gray ? toGray(column) : column);
+            if (second >= secondStartFrom && (!symmetric || second >= first)) {
+                for (OperandPairConsumer runner : runners) {
+                    runner.acceptOperands(first, second);
+                }
+            }
+        }
+    }
+
+    private static int toGray(int value) {
+        return value ^ (value >>> 1);
+    }
+
+    private static void forPairs(OperandPairConsumer[] runners, long[] pairs) {
+        for (long pair : pairs) {
+            int first = OperandPair.first(pair);
+            int second = OperandPair.second(pair);
+            for (OperandPairConsumer runner : runners) {
+                runner.acceptOperands(first, second);
+            }
+        }
+    }
+
+    private static boolean isCommutative(OperandPairConsumer[] runners) {
+        for (OperandPairConsumer runner : runners) {
+            if (!(runner instanceof TestRunner) || !((TestRunner<?, ?>) runner).isCommutative()) {
+                return false;
+            }
+        }
+        return runners.length > 0;
+    }
+
+    private static OperandPairConsumer[] bytes(BiConsumer<Byte, Byte>[] runners) {
+        return OperandPairConsumer.of(OperandType.BYTE, Arrays.asList(runners));
+    }
+
+    private static OperandPairConsumer[] dwords(BiConsumer<Long, Long>[] runners) {
+        return OperandPairConsumer.of(OperandType.DWORD, Arrays.asList(runners));
+    }
+
+    private static OperandPairConsumer[] words(BiConsumer<Integer, Integer>[] runners) {
+        return OperandPairConsumer.of(OperandType.WORD, Arrays.asList(runners));
+    }
+
     @SafeVarargs
     public static <T extends Number> void forGivenOperandsAndSingleRun(T operand, BiConsumer<T, T>... runners) {
         for (BiConsumer<T, T> runner : runners) {
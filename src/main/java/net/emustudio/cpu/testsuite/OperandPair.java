@@ -0,0 +1,62 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+/**
+ * Operand pair packed into a single long value.
+ *
+ * The first operand is stored in upper 32 bits, the second one in lower 32 bits. It is used by OperandSpace streams.
+ */
+@SuppressWarnings("unused")
+public final class OperandPair {
+
+    private OperandPair() {
+    }
+
+    /**
+     * Pack operands into a long value.
+     *
+     * @param first first operand (unsigned)
+     * @param second second operand (unsigned)
+     * @return packed pair
+     */
+    public static long pack(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get first operand of the packed pair.
+     *
+     * @param pair packed pair
+     * @return first operand
+     */
+    public static int first(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    /**
+     * Get second operand of the packed pair.
+     *
+     * @param pair packed pair
+     * @return second operand
+     */
+    public static int second(long pair) {
+        return (int) pair;
+    }
+}
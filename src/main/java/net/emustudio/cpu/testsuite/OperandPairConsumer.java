@@ -0,0 +1,80 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Primitive variant of BiConsumer used by generators.
+ *
+ * Operands are passed as unsigned int values, so the generated test case is not boxed.
+ */
+@FunctionalInterface
+public interface OperandPairConsumer {
+
+    /**
+     * Run test case.
+     *
+     * @param first first operand (unsigned)
+     * @param second second operand (unsigned)
+     */
+    void acceptOperands(int first, int second);
+
+    /**
+     * Adapts boxed runner to primitive one.
+     *
+     * TestRunner is used directly, other runners get boxed operands of given type.
+     *
+     * @param operandType type of operands the runner expects
+     * @param runner boxed runner
+     * @param <TOperand> operands type (Byte, Integer or Long)
+     * @return primitive runner
+     */
+    @SuppressWarnings("unchecked")
+    static <TOperand extends Number> OperandPairConsumer of(OperandType operandType,
+                                                            BiConsumer<TOperand, TOperand> runner) {
+        Objects.requireNonNull(operandType);
+        if (runner instanceof TestRunner) {
+            return ((TestRunner<?, ?>) runner).operandType(operandType);
+        } else if (runner instanceof OperandPairConsumer) {
+            return (OperandPairConsumer) runner;
+        }
+        return (first, second) -> runner.accept((TOperand) operandType.box(first), (TOperand) operandType.box(second));
+    }
+
+    /**
+     * Adapts boxed runners to primitive ones.
+     *
+     * @param operandType type of operands the runners expect
+     * @param runners boxed runners
+     * @param <TOperand> operands type (Byte, Integer or Long)
+     * @return primitive runners
+     * @see #of(OperandType, BiConsumer)
+     */
+    static <TOperand extends Number> OperandPairConsumer[] of(OperandType operandType,
+                                                              List<? extends BiConsumer<TOperand, TOperand>> runners) {
+        OperandPairConsumer[] result = new OperandPairConsumer[runners.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = of(operandType, runners.get(i));
+        }
+        return result;
+    }
+}
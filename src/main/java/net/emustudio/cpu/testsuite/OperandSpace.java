@@ -0,0 +1,362 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.internal.SatisfyingValues;
+import net.jcip.annotations.Immutable;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Domain of operand pairs, which can be enumerated as a stream.
+ *
+ * Operand pairs are packed into long values (see OperandPair). The space has exact size, it is splittable into
+ * balanced halves, and any pair can be accessed by its index in constant time. Therefore the space can be used in
+ * parallel LongStream pipelines, and a sweep can start from any offset (see {@link #skip(long)}).
+ *
+ * Unary spaces have the second operand set to 0. There is no 32-bit binary space, because its size (2^64) does not
+ * fit into long.
+ *
+ * @param <TOperand> type of the operands (Byte, Integer or Long)
+ */
+@SuppressWarnings("unused")
+@Immutable
+public final class OperandSpace<TOperand extends Number> {
+    private static final int MAX_8BIT_VALUE = 0xFF;
+    private static final int MAX_16BIT_VALUE = 0xFFFF;
+
+    private final OperandType operandType;
+    private final Axis first;
+    private final Axis second; // null for "which equal" spaces
+    private final long origin;
+    private final long fence;
+
+    private OperandSpace(OperandType operandType, Axis first, Axis second, long origin, long fence) {
+        this.operandType = Objects.requireNonNull(operandType);
+        this.first = Objects.requireNonNull(first);
+        this.second = second;
+        this.origin = origin;
+        this.fence = fence;
+    }
+
+    private OperandSpace(OperandType operandType, Axis first, Axis second) {
+        this(operandType, first, second, 0, first.size * (second == null ? 1 : second.size));
+    }
+
+    public static OperandSpace<Byte> unary8() {
+        return new OperandSpace<>(OperandType.BYTE, Axis.range(0, MAX_8BIT_VALUE), Axis.ZERO);
+    }
+
+    public static OperandSpace<Byte> binary8() {
+        return new OperandSpace<>(OperandType.BYTE, Axis.range(0, MAX_8BIT_VALUE), Axis.range(0, MAX_8BIT_VALUE));
+    }
+
+    public static OperandSpace<Byte> binary8WhichEqual() {
+        return new OperandSpace<>(OperandType.BYTE, Axis.range(0, MAX_8BIT_VALUE), null);
+    }
+
+    public static OperandSpace<Integer> unary16() {
+        return unary16(0);
+    }
+
+    public static OperandSpace<Integer> unary16(int firstStartFrom) {
+        return new OperandSpace<>(OperandType.WORD, Axis.range(firstStartFrom, MAX_16BIT_VALUE), Axis.ZERO);
+    }
+
+    public static OperandSpace<Long> unary32() {
+        return new OperandSpace<>(OperandType.DWORD, Axis.range32(), Axis.ZERO);
+    }
+
+    public static OperandSpace<Integer> binary16() {
+        return binary16(0, 0);
+    }
+
+    public static OperandSpace<Integer> binary16(int firstStartFrom, int secondStartFrom) {
+        return new OperandSpace<>(
+            OperandType.WORD, Axis.range(firstStartFrom, MAX_16BIT_VALUE), Axis.range(secondStartFrom, MAX_16BIT_VALUE)
+        );
+    }
+
+    public static OperandSpace<Integer> binary16WhichEqual() {
+        return new OperandSpace<>(OperandType.WORD, Axis.range(0, MAX_16BIT_VALUE), null);
+    }
+
+    public static OperandSpace<Integer> binary16FirstSatisfying(Predicate<Integer> predicate) {
+        return new OperandSpace<>(OperandType.WORD, Axis.satisfying(predicate), Axis.range(0, MAX_16BIT_VALUE));
+    }
+
+    public static OperandSpace<Integer> binary16BothSatisfying(Predicate<Integer> firstP, Predicate<Integer> secondP) {
+        return new OperandSpace<>(OperandType.WORD, Axis.satisfying(firstP), Axis.satisfying(secondP));
+    }
+
+    /**
+     * Get type of the operands.
+     *
+     * @return operand type
+     */
+    public OperandType getOperandType() {
+        return operandType;
+    }
+
+    /**
+     * Get count of operand pairs in this space.
+     *
+     * @return exact size of the space
+     */
+    public long size() {
+        return fence - origin;
+    }
+
+    /**
+     * Get operand pair at given index.
+     *
+     * @param index index of the pair, relative to the start of this space
+     * @return packed operand pair (see OperandPair)
+     */
+    public long get(long index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        return pairAt(origin + index);
+    }
+
+    /**
+     * Skip first n operand pairs, in constant time.
+     *
+     * @param n number of pairs to skip
+     * @return space without first n pairs
+     */
+    public OperandSpace<TOperand> skip(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of skipped pairs must be >= 0");
+        }
+        return new OperandSpace<>(operandType, first, second, origin + Math.min(n, size()), fence);
+    }
+
+    /**
+     * Limit this space to first n operand pairs, in constant time.
+     *
+     * @param n maximal number of pairs
+     * @return space with at most n pairs
+     */
+    public OperandSpace<TOperand> limit(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Limit must be >= 0");
+        }
+        return new OperandSpace<>(operandType, first, second, origin, origin + Math.min(n, size()));
+    }
+
+    public Spliterator.OfLong spliterator() {
+        return new PairSpliterator(origin, fence);
+    }
+
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    public LongStream parallelStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
+    /**
+     * Run all operand pairs of this space sequentially.
+     *
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public final void forEach(BiConsumer<TOperand, TOperand>... runners) {
+        OperandPairConsumer[] consumers = new OperandPairConsumer[runners.length];
+        for (int i = 0; i < runners.length; i++) {
+            consumers[i] = OperandPairConsumer.of(operandType, runners[i]);
+        }
+        stream().forEach(pair -> {
+            int f = OperandPair.first(pair);
+            int s = OperandPair.second(pair);
+            for (OperandPairConsumer runner : consumers) {
+                runner.acceptOperands(f, s);
+            }
+        });
+    }
+
+    /**
+     * Run all operand pairs of this space, in batches.
+     *
+     * Test runners execute each batch at once (see TestRunner.runBatch()), so memory image of the CPU is set up only
+     * once per batch. Other runners get the operands one by one.
+     *
+     * @param batchSize maximal number of test cases in a batch
+     * @param runners test runners
+     */
+    @SafeVarargs
+    public final void forEachInBatches(int batchSize, BiConsumer<TOperand, TOperand>... runners) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be > 0 (was " + batchSize + ")");
+        }
+        OperandPairConsumer[] consumers = new OperandPairConsumer[runners.length];
+        for (int i = 0; i < runners.length; i++) {
+            consumers[i] = OperandPairConsumer.of(operandType, runners[i]);
+        }
+        long[] batch = new long[(int) Math.min(batchSize, Math.max(1, size()))];
+        int[] count = {0};
+        spliterator().forEachRemaining((LongConsumer) pair -> {
+            batch[count[0]++] = pair;
+            if (count[0] == batch.length) {
+                runBatch(consumers, batch, count[0]);
+                count[0] = 0;
+            }
+        });
+        runBatch(consumers, batch, count[0]);
+    }
+
+    private static void runBatch(OperandPairConsumer[] consumers, long[] batch, int count) {
+        for (OperandPairConsumer consumer : consumers) {
+            if (consumer instanceof TestRunner) {
+                ((TestRunner<?, ?>) consumer).runBatch(batch, 0, count);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    consumer.acceptOperands(OperandPair.first(batch[i]), OperandPair.second(batch[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a consumer of packed operand pairs, usable in parallel streams.
+     *
+     * Each thread gets its own test runners, created by the factory.
+     *
+     * @param runnersFactory factory of test runners
+     * @return consumer of packed operand pairs
+     */
+    public LongConsumer perThread(RunnersFactory<TOperand> runnersFactory) {
+        Objects.requireNonNull(runnersFactory);
+        ThreadLocal<OperandPairConsumer[]> runners = ThreadLocal.withInitial(
+            () -> OperandPairConsumer.of(operandType, runnersFactory.createRunners())
+        );
+        return pair -> {
+            int f = OperandPair.first(pair);
+            int s = OperandPair.second(pair);
+            for (OperandPairConsumer runner : runners.get()) {
+                runner.acceptOperands(f, s);
+            }
+        };
+    }
+
+    private long pairAt(long index) {
+        if (second == null) {
+            int value = first.value(index);
+            return OperandPair.pack(value, value);
+        }
+        return OperandPair.pack(first.value(index / second.size), second.value(index % second.size));
+    }
+
+    @Override
+    public String toString() {
+        return "OperandSpace{" + operandType + ", size=" + size() + "}";
+    }
+
+    private final class PairSpliterator implements Spliterator.OfLong {
+        private long index;
+        private final long fence;
+
+        PairSpliterator(long index, long fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            long middle = (index + fence) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            PairSpliterator prefix = new PairSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index < fence) {
+                action.accept(pairAt(index++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long i = index;
+            index = fence;
+            for (; i < fence; i++) {
+                action.accept(pairAt(i));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
+        }
+    }
+
+    private static final class Axis {
+        static final Axis ZERO = new Axis(0, 1, null);
+
+        final int from;
+        final long size;
+        final SatisfyingValues values;
+
+        private Axis(int from, long size, SatisfyingValues values) {
+            this.from = from;
+            this.size = size;
+            this.values = values;
+        }
+
+        static Axis range(int from, int to) {
+            if (from < 0 || from > to) {
+                throw new IllegalArgumentException("Operand must start in range 0 - " + to);
+            }
+            return new Axis(from, to - from + 1, null);
+        }
+
+        static Axis range32() {
+            return new Axis(0, 1L << 32, null);
+        }
+
+        static Axis satisfying(Predicate<Integer> predicate) {
+            SatisfyingValues values = SatisfyingValues.of16bit(predicate);
+            return new Axis(0, values.size(), values);
+        }
+
+        int value(long index) {
+            return (values == null) ? (int) (from + index) : values.get((int) index);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+/**
+ * Type of instruction operands.
+ *
+ * Primitive operand callbacks (OperandPairConsumer, int injectors and int operations) work with unsigned int
+ * values. Operand type is used for conversion between them and boxed operands (Byte, Integer or Long).
+ *
+ * 32-bit (DWORD) operands are passed as int values too, so they must be treated as unsigned
+ * (e.g. by Integer.toUnsignedLong).
+ */
+public enum OperandType {
+    BYTE {
+        @Override
+        public Byte box(int operand) {
+            return (byte) operand;
+        }
+
+        @Override
+        public int toInt(Number operand) {
+            return operand.intValue() & 0xFF;
+        }
+
+        @Override
+        public int mask() {
+            return 0xFF;
+        }
+    },
+    WORD {
+        @Override
+        public Integer box(int operand) {
+            return operand;
+        }
+
+        @Override
+        public int toInt(Number operand) {
+            return operand.intValue();
+        }
+
+        @Override
+        public int mask() {
+            return 0xFFFF;
+        }
+    },
+    DWORD {
+        @Override
+        public Long box(int operand) {
+            return Integer.toUnsignedLong(operand);
+        }
+
+        @Override
+        public int toInt(Number operand) {
+            return (int) operand.longValue();
+        }
+
+        @Override
+        public int mask() {
+            return 0xFFFFFFFF;
+        }
+    };
+
+    /**
+     * Converts primitive operand to boxed one.
+     *
+     * @param operand unsigned operand value
+     * @return boxed operand (Byte, Integer or Long)
+     */
+    public abstract Number box(int operand);
+
+    /**
+     * Converts boxed operand to primitive one.
+     *
+     * @param operand boxed operand (Byte, Integer or Long)
+     * @return unsigned operand value
+     */
+    public abstract int toInt(Number operand);
+
+    /**
+     * Get mask of all operand bits.
+     *
+     * @return bit mask (0xFF, 0xFFFF or 0xFFFFFFFF)
+     */
+    public abstract int mask();
+
+    /**
+     * Determine operand type from boxed operand.
+     *
+     * @param operand boxed operand
+     * @return operand type
+     * @throws IllegalArgumentException if the operand is not Byte, Integer or Long
+     */
+    public static OperandType of(Number operand) {
+        if (operand instanceof Byte) {
+            return BYTE;
+        } else if (operand instanceof Integer) {
+            return WORD;
+        } else if (operand instanceof Long) {
+            return DWORD;
+        }
+        throw new IllegalArgumentException("Operand type can be Byte, Integer or Long");
+    }
+
+    /**
+     * Converts boxed operand of any supported type to primitive one.
+     *
+     * @param operand boxed operand (Byte, Integer or Long)
+     * @return unsigned operand value
+     */
+    public static int intValue(Number operand) {
+        return of(operand).toInt(operand);
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compressed bitmap of operand pairs (see OperandPair), similar to Roaring bitmaps.
+ *
+ * Pairs are split by their upper bits into containers of 65536 pairs. A container keeps its pairs as a sorted array
+ * if there are few of them, as runs of consecutive pairs if there are few runs, or as a plain bitmap otherwise. So
+ * a whole failing 16-bit sweep takes a few bytes per 65536 pairs, instead of 8 KB.
+ */
+@NotThreadSafe
+final class PairBitmap {
+    private static final int CONTAINER_BITS = 16;
+    private static final int CONTAINER_MASK = (1 << CONTAINER_BITS) - 1;
+    private static final int MAX_ARRAY_SIZE = 4096; // array of 4096 values is as large as the bitmap
+    private static final int MAX_RUNS = 2048; // 2048 runs are as large as the bitmap
+
+    private final Map<Long, Container> containers = new HashMap<>();
+    private long cardinality;
+
+    /**
+     * Add a pair.
+     *
+     * @param pair packed operand pair
+     * @return true if the pair was not in the bitmap yet
+     */
+    boolean add(long pair) {
+        Long key = pair >>> CONTAINER_BITS;
+        Container container = containers.get(key);
+        if (container == null) {
+            container = new ArrayContainer();
+        }
+        int before = container.cardinality;
+        Container result = container.add((int) pair & CONTAINER_MASK);
+        if (result != container || before == 0) {
+            containers.put(key, result);
+        }
+        if (result.cardinality == before) {
+            return false;
+        }
+        cardinality++;
+        return true;
+    }
+
+    boolean contains(long pair) {
+        Container container = containers.get(pair >>> CONTAINER_BITS);
+        return container != null && container.contains((int) pair & CONTAINER_MASK);
+    }
+
+    long getCardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Get approximate size of the containers.
+     *
+     * @return size of container data in bytes
+     */
+    long getSizeInBytes() {
+        long size = 0;
+        for (Container container : containers.values()) {
+            size += container.sizeInBytes();
+        }
+        return size;
+    }
+
+    private abstract static class Container {
+        int cardinality;
+
+        /**
+         * Add a value.
+         *
+         * @param value value in range 0 - 65535
+         * @return this container, or a container of another kind with the value added
+         */
+        abstract Container add(int value);
+
+        abstract boolean contains(int value);
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+
+        @Override
+        Container add(int value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                return convert().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, values.length * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = (char) value;
+            cardinality++;
+            return this;
+        }
+
+        private Container convert() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (i == 0 || values[i] != values[i - 1] + 1) {
+                    runs++;
+                }
+            }
+            Container result = (runs <= MAX_RUNS) ? new RunContainer() : new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                result = result.add(values[i]);
+            }
+            return result;
+        }
+
+        @Override
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) value) >= 0;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 2L * values.length;
+        }
+    }
+
+    private static final class RunContainer extends Container {
+        private char[] starts = new char[4];
+        private char[] ends = new char[4]; // inclusive
+        private int runs;
+
+        @Override
+        Container add(int value) {
+            int index = lastRunStartingAtOrBefore(value);
+            if (index >= 0 && value <= ends[index]) {
+                return this;
+            }
+            boolean joinsPrevious = index >= 0 && ends[index] + 1 == value;
+            boolean joinsNext = index + 1 < runs && starts[index + 1] == value + 1;
+            if (joinsPrevious && joinsNext) {
+                ends[index] = ends[index + 1];
+                System.arraycopy(starts, index + 2, starts, index + 1, runs - index - 2);
+                System.arraycopy(ends, index + 2, ends, index + 1, runs - index - 2);
+                runs--;
+            } else if (joinsPrevious) {
+                ends[index] = (char) value;
+            } else if (joinsNext) {
+                starts[index + 1] = (char) value;
+            } else {
+                if (runs == MAX_RUNS) {
+                    return toBitmap().add(value);
+                }
+                if (runs == starts.length) {
+                    starts = Arrays.copyOf(starts, runs * 2);
+                    ends = Arrays.copyOf(ends, runs * 2);
+                }
+                System.arraycopy(starts, index + 1, starts, index + 2, runs - index - 1);
+                System.arraycopy(ends, index + 1, ends, index + 2, runs - index - 1);
+                starts[index + 1] = (char) value;
+                ends[index + 1] = (char) value;
+                runs++;
+            }
+            cardinality++;
+            return this;
+        }
+
+        private int lastRunStartingAtOrBefore(int value) {
+            int index = Arrays.binarySearch(starts, 0, runs, (char) value);
+            return (index >= 0) ? index : -index - 2;
+        }
+
+        private Container toBitmap() {
+            BitmapContainer result = new BitmapContainer();
+            for (int i = 0; i < runs; i++) {
+                result.setRange(starts[i], ends[i]);
+            }
+            return result;
+        }
+
+        @Override
+        boolean contains(int value) {
+            int index = lastRunStartingAtOrBefore(value);
+            return index >= 0 && value <= ends[index];
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 4L * starts.length;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[1 << (CONTAINER_BITS - 6)];
+
+        @Override
+        Container add(int value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                return this;
+            }
+            words[value >>> 6] |= bit;
+            cardinality++;
+            // with a margin, so the container does not switch back and forth
+            if (cardinality % MAX_ARRAY_SIZE == 0 && countRuns() <= MAX_RUNS / 2) {
+                return toRuns();
+            }
+            return this;
+        }
+
+        void setRange(int from, int to) {
+            for (int value = from; value <= to; value++) {
+                words[value >>> 6] |= 1L << value;
+            }
+            cardinality += to - from + 1;
+        }
+
+        private int countRuns() {
+            int runs = 0;
+            long previousTopBit = 0;
+            for (long word : words) {
+                runs += Long.bitCount(word & ~((word << 1) | previousTopBit));
+                previousTopBit = word >>> 63;
+            }
+            return runs;
+        }
+
+        private Container toRuns() {
+            Container result = new RunContainer();
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    result = result.add((i << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        boolean contains(int value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 8L * words.length;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.verifiers.FlagsVerifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+/**
+ * Partitions operand space into equivalence classes, using flag predicates of FlagsVerifiers
+ * (see FlagsCheck.expectFlagOnlyWhen).
+ *
+ * Two operand pairs are in the same class if all flag verifiers of all runners expect the same flags. Predicates
+ * are evaluated without CPU state, i.e. with flags = 0 and no registers in the runner context.
+ */
+final class Partitioner {
+    private final OperandType operandType;
+    private final List<FlagsVerifier<Number>> verifiers = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    Partitioner(OperandType operandType, OperandPairConsumer[] runners) {
+        this.operandType = operandType;
+        for (OperandPairConsumer runner : runners) {
+            if (runner instanceof TestRunner) {
+                for (Consumer<? extends RunnerContext<?>> verifier : ((TestRunner<?, ?>) runner).getVerifiers()) {
+                    if (verifier instanceof FlagsVerifier) {
+                        verifiers.add((FlagsVerifier<Number>) verifier);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get equivalence class of operand pair.
+     *
+     * @param first first operand (unsigned)
+     * @param second second operand (unsigned)
+     * @return class key
+     */
+    long classOf(int first, int second) {
+        RunnerContext<Number> context = new RunnerContext<>(operandType.box(first), operandType.box(second), 0);
+        long key = 1;
+        for (FlagsVerifier<Number> verifier : verifiers) {
+            try {
+                key = key * 0x9E3779B97F4A7C15L + verifier.expectedFlags(context);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException(
+                        "Flag predicates of " + verifier + " cannot be evaluated without CPU state", e
+                );
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Select test cases from candidate operand pairs.
+     *
+     * From each class, at most casesPerPartition pairs are selected (in order of candidates). Moreover, for each
+     * ordered pair of neighbouring classes (which differ by +1 in the first or the second operand), one boundary is
+     * selected - both pairs at the boundary. Only the first boundary between the two classes (in order of candidates)
+     * represents the transition; other boundaries between the same classes are not run.
+     *
+     * @param candidates packed candidate pairs (see OperandPair)
+     * @param casesPerPartition maximal number of non-boundary cases per class
+     * @param unary if true, second operand is not varied
+     * @return packed pairs to run
+     */
+    long[] plan(LongStream candidates, int casesPerPartition, boolean unary) {
+        if (casesPerPartition < 1) {
+            throw new IllegalArgumentException("Cases per partition must be >= 1");
+        }
+        int mask = operandType.mask();
+
+        Map<Long, List<Long>> members = new LinkedHashMap<>();
+        Map<Long, Map<Long, long[]>> boundaries = new LinkedHashMap<>(); // class -> next class -> boundary
+        candidates.forEachOrdered(pair -> {
+            int first = OperandPair.first(pair);
+            int second = OperandPair.second(pair);
+            long key = classOf(first, second);
+
+            List<Long> classMembers = members.computeIfAbsent(key, k -> new ArrayList<>());
+            if (classMembers.size() < casesPerPartition) {
+                classMembers.add(pair);
+            }
+
+            addBoundary(boundaries, key, pair, (first + 1) & mask, second);
+            if (!unary) {
+                addBoundary(boundaries, key, pair, first, (second + 1) & mask);
+            }
+        });
+
+        Set<Long> plan = new LinkedHashSet<>();
+        members.values().forEach(plan::addAll);
+        int boundaryCount = 0;
+        for (Map<Long, long[]> classBoundaries : boundaries.values()) {
+            for (long[] boundary : classBoundaries.values()) {
+                plan.add(boundary[0]);
+                plan.add(boundary[1]);
+            }
+            boundaryCount += classBoundaries.size();
+        }
+        System.out.println(String.format(
+                "Partitioned operand space into %d classes with %d boundaries; running %d cases",
+                members.size(), boundaryCount, plan.size()
+        ));
+        return plan.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void addBoundary(Map<Long, Map<Long, long[]>> boundaries, long key, long pair,
+                             int nextFirst, int nextSecond) {
+        long nextKey = classOf(nextFirst, nextSecond);
+        if (nextKey != key) {
+            boundaries.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(
+                    nextKey, transition -> new long[]{pair, OperandPair.pack(nextFirst, nextSecond)}
+            );
+        }
+    }
+}
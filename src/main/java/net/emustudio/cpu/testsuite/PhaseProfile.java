@@ -0,0 +1,257 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Latency profile of test execution phases (see TestRunner.profile()).
+ *
+ * For each instruction, durations of the phases of a test case (reset, inject, step and verify) are recorded into
+ * histograms with fixed buckets: bucket b counts durations in range [2^(b-1), 2^b) nanoseconds. Each test runner
+ * records into its own primitive counters, without locking; counters are merged when the profile is read.
+ *
+ * The profile can be shared by more test runners, also running in parallel. It should be read after the runners
+ * finish (e.g. printed in an AfterClass method of the test class).
+ */
+@SuppressWarnings("unused")
+@ThreadSafe
+public final class PhaseProfile {
+    private static final int BUCKETS = 48;
+
+    private final ConcurrentLinkedQueue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Phase of a test case.
+     */
+    public enum Phase {
+        /**
+         * Reset of the CPU (or restore of a fixture), before injecting.
+         */
+        RESET,
+
+        /**
+         * Injecting operands, instruction and other state, and capturing the context for verifiers.
+         */
+        INJECT,
+
+        /**
+         * Executing the instruction (CpuRunner.step()).
+         */
+        STEP,
+
+        /**
+         * Running verifiers.
+         */
+        VERIFY
+    }
+
+    /**
+     * Counters of a single test runner, not thread-safe.
+     */
+    static final class Recorder {
+        private final String instruction;
+        private final long[][] histograms = new long[Phase.values().length][BUCKETS];
+        private final long[] totalNanos = new long[Phase.values().length];
+        private long cases;
+
+        private Recorder(String instruction) {
+            this.instruction = instruction;
+        }
+
+        /**
+         * Record duration of a phase.
+         *
+         * @param phase phase of the test case
+         * @param start time when the phase started (System.nanoTime())
+         * @return time when the phase ended, i.e. when the next phase starts
+         */
+        long record(Phase phase, long start) {
+            long now = System.nanoTime();
+            long nanos = Math.max(0, now - start);
+            int ordinal = phase.ordinal();
+            histograms[ordinal][Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))]++;
+            totalNanos[ordinal] += nanos;
+            if (phase == Phase.VERIFY) {
+                cases++;
+            }
+            return now;
+        }
+    }
+
+    /**
+     * Merged histograms of a single instruction.
+     */
+    public static final class Histograms {
+        private final long[][] histograms = new long[Phase.values().length][BUCKETS];
+        private final long[] totalNanos = new long[Phase.values().length];
+        private long cases;
+
+        private void add(Recorder recorder) {
+            for (int phase = 0; phase < histograms.length; phase++) {
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    histograms[phase][bucket] += recorder.histograms[phase][bucket];
+                }
+                totalNanos[phase] += recorder.totalNanos[phase];
+            }
+            cases += recorder.cases;
+        }
+
+        /**
+         * Get number of profiled test cases.
+         *
+         * @return number of test cases
+         */
+        public long getCases() {
+            return cases;
+        }
+
+        /**
+         * Get total time spent in a phase.
+         *
+         * @param phase phase of the test case
+         * @return total time in nanoseconds
+         */
+        public long getTotalNanos(Phase phase) {
+            return totalNanos[phase.ordinal()];
+        }
+
+        /**
+         * Get mean duration of a phase.
+         *
+         * @param phase phase of the test case
+         * @return mean duration in nanoseconds (0 if nothing was profiled)
+         */
+        public double getMeanNanos(Phase phase) {
+            return (cases == 0) ? 0 : (double) totalNanos[phase.ordinal()] / cases;
+        }
+
+        /**
+         * Get upper estimate of a percentile of phase durations.
+         *
+         * @param phase phase of the test case
+         * @param percentile percentile (0 - 100)
+         * @return upper bound of the histogram bucket containing the percentile, in nanoseconds
+         */
+        public long getPercentileNanos(Phase phase, double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in range 0 - 100 (was " + percentile + ")");
+            }
+            long[] histogram = histograms[phase.ordinal()];
+            long count = 0;
+            for (long bucketCount : histogram) {
+                count += bucketCount;
+            }
+            long rank = (long) Math.ceil(count * percentile / 100.0);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += histogram[bucket];
+                if (seen >= rank && seen > 0) {
+                    return 1L << bucket;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Get histogram of phase durations.
+         *
+         * @param phase phase of the test case
+         * @return copy of the histogram; bucket b counts durations in range [2^(b-1), 2^b) nanoseconds
+         */
+        public long[] getHistogram(Phase phase) {
+            return histograms[phase.ordinal()].clone();
+        }
+    }
+
+    /**
+     * Create counters for a test runner.
+     *
+     * @param instruction instruction tested by the runner
+     * @return new counters
+     */
+    Recorder newRecorder(String instruction) {
+        Recorder recorder = new Recorder(Objects.requireNonNull(instruction));
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    /**
+     * Get histograms merged per instruction.
+     *
+     * @return histograms for each instruction, in order of first use
+     */
+    public Map<String, Histograms> getHistograms() {
+        Map<String, Histograms> result = new LinkedHashMap<>();
+        for (Recorder recorder : recorders) {
+            result.computeIfAbsent(recorder.instruction, key -> new Histograms()).add(recorder);
+        }
+        return result;
+    }
+
+    /**
+     * Get histograms of all instructions merged together.
+     *
+     * @return merged histograms
+     */
+    public Histograms getTotal() {
+        Histograms total = new Histograms();
+        for (Recorder recorder : recorders) {
+            total.add(recorder);
+        }
+        return total;
+    }
+
+    /**
+     * Summary table: for each instruction and phase, mean and 99th percentile of durations and share of total time.
+     *
+     * @return summary table
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("PhaseProfile{mean / p99 ns, share of time}");
+        result.append(String.format("%n  %-32s %12s", "instruction", "cases"));
+        for (Phase phase : Phase.values()) {
+            result.append(String.format(" %26s", phase));
+        }
+        getHistograms().forEach((instruction, histograms) -> appendRow(result, instruction, histograms));
+        appendRow(result, "total", getTotal());
+        return result.toString();
+    }
+
+    private static void appendRow(StringBuilder result, String instruction, Histograms histograms) {
+        long total = 0;
+        for (Phase phase : Phase.values()) {
+            total += histograms.getTotalNanos(phase);
+        }
+        result.append(String.format("%n  %-32s %12d", instruction, histograms.getCases()));
+        for (Phase phase : Phase.values()) {
+            result.append(String.format(
+                    " %9.0f / %-7d %4.0f%%",
+                    histograms.getMeanNanos(phase), histograms.getPercentileNanos(phase, 99),
+                    (total == 0) ? 0.0 : histograms.getTotalNanos(phase) * 100.0 / total
+            ));
+        }
+    }
+}
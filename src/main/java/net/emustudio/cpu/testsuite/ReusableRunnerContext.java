@@ -0,0 +1,157 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Context reused by TestRunner for all test cases (see TestRunner.reuseContext()).
+ *
+ * It is filled in place before each test case. Public fields of RunnerContext are not filled; values are returned
+ * only by its methods. Operands are boxed only when getFirst() or getSecond() is called, so verifiers which use
+ * getFirstAsInt() and getSecondAsInt() do not allocate.
+ *
+ * @param <TOperand> type of the operands (Byte, Integer or Long)
+ */
+@NotThreadSafe
+final class ReusableRunnerContext<TOperand extends Number> extends RunnerContext<TOperand> {
+    private OperandType operandType;
+    private TOperand boxedFirst;
+    private TOperand boxedSecond;
+    private int firstAsInt;
+    private int secondAsInt;
+    private int flagsBefore;
+    private int pcBefore;
+    private int spBefore;
+    private int[] registerValues = NO_REGISTERS;
+
+    private ReusableRunnerContext<TOperand> switched;
+
+    ReusableRunnerContext() {
+        super(null, null, 0, 0, 0, 0, 0, NO_REGISTERS);
+    }
+
+    /**
+     * Fill the context in place.
+     *
+     * @param operandType type of the operands, used for boxing them when they are needed
+     * @param first first operand (or null if it should be boxed when it is needed)
+     * @param second second operand (or null if it should be boxed when it is needed)
+     * @param firstAsInt first operand (unsigned)
+     * @param secondAsInt second operand (unsigned)
+     * @param flags flags before test execution
+     * @param PC program counter before test execution
+     * @param SP stack pointer before test execution
+     */
+    void fill(OperandType operandType, TOperand first, TOperand second, int firstAsInt, int secondAsInt, int flags,
+              int PC, int SP) {
+        this.operandType = operandType;
+        this.boxedFirst = first;
+        this.boxedSecond = second;
+        this.firstAsInt = firstAsInt;
+        this.secondAsInt = secondAsInt;
+        this.flagsBefore = flags;
+        this.pcBefore = PC;
+        this.spBefore = SP;
+    }
+
+    /**
+     * Get array for register values, to be filled in place (see CpuRunner.getRegisters(int[])).
+     *
+     * @return array of register values
+     */
+    int[] getRegisterValues() {
+        return registerValues;
+    }
+
+    void setRegisterValues(int[] registerValues) {
+        this.registerValues = registerValues;
+    }
+
+    @Override
+    public RunnerContext<TOperand> switchFirstAndSecond() {
+        if (switched == null) {
+            switched = new ReusableRunnerContext<>();
+        }
+        switched.fill(operandType, boxedSecond, boxedFirst, secondAsInt, firstAsInt, flagsBefore, pcBefore, spBefore);
+        switched.registerValues = registerValues;
+        return switched;
+    }
+
+    @Override
+    public RunnerContext<TOperand> copy() {
+        return new RunnerContext<>(
+                getFirst(), getSecond(), firstAsInt, secondAsInt, flagsBefore, pcBefore, spBefore,
+                registerValues.clone()
+        );
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TOperand getFirst() {
+        if (boxedFirst == null && operandType != null) {
+            boxedFirst = (TOperand) operandType.box(firstAsInt);
+        }
+        return boxedFirst;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TOperand getSecond() {
+        if (boxedSecond == null && operandType != null) {
+            boxedSecond = (TOperand) operandType.box(secondAsInt);
+        }
+        return boxedSecond;
+    }
+
+    @Override
+    public int getFirstAsInt() {
+        return firstAsInt;
+    }
+
+    @Override
+    public int getSecondAsInt() {
+        return secondAsInt;
+    }
+
+    @Override
+    public int getFlags() {
+        return flagsBefore;
+    }
+
+    @Override
+    public int getPC() {
+        return pcBefore;
+    }
+
+    @Override
+    public int getSP() {
+        return spBefore;
+    }
+
+    @Override
+    public int getRegister(int register) {
+        return registerValues[register];
+    }
+
+    @Override
+    int getRegistersCount() {
+        return registerValues.length;
+    }
+}
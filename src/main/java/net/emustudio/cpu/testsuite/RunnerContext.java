@@ -21,26 +21,42 @@ package net.emustudio.cpu.testsuite;
 import net.emustudio.cpu.testsuite.injectors.internal.Utils;
 import net.jcip.annotations.Immutable;
 
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Context of a running test.
  *
  * It is used by injectors and verifiers.
  *
- * @param <TOperand> type of the operands (Byte or Integer)
+ * Verifiers should read the context by its methods (e.g. getFirst(), getFlags()) rather than by its fields. Test
+ * runners which reuse a single context for all test cases (see TestRunner.reuseContext()) fill only values returned
+ * by the methods, so that a test case does not allocate. Verifiers must not keep such context after they return;
+ * use copy() for that.
+ *
+ * @param <TOperand> type of the operands (Byte, Integer or Long)
  */
 @SuppressWarnings("unused")
 @Immutable
 public class RunnerContext<TOperand extends Number> {
+    static final int[] NO_REGISTERS = new int[0];
+
     public final TOperand first;
     public final TOperand second;
 
     public final int flags;
     public final int PC;
     public final int SP;
-    public final List<Integer> registers;
+
+    /**
+     * Values of registers before test execution. Values are boxed only when they are read.
+     */
+    public final List<Integer> registers = new RegistersView();
+
+    private final int firstAsInt;
+    private final int secondAsInt;
+    private final int[] registerValues;
 
     /**
      * Creates new RunnerContext which will be used by test verifiers.
@@ -54,13 +70,7 @@ public class RunnerContext<TOperand extends Number> {
      *                  CpuRunner implementation)
      */
     public RunnerContext(TOperand first, TOperand second, int flags, int PC, int SP, List<Integer> registers) {
-        this.first = first;
-        this.second = second;
-        this.flags = flags;
-        this.PC = PC;
-        this.SP = SP;
-
-        this.registers = List.copyOf(registers);
+        this(first, second, unsigned(first), unsigned(second), flags, PC, SP, toArray(registers));
     }
 
     /**
@@ -73,17 +83,120 @@ public class RunnerContext<TOperand extends Number> {
      * @param flags flags before test execution
      */
     public RunnerContext(TOperand first, TOperand second, int flags) {
-        this(first, second, flags, 0, 0, Collections.emptyList());
+        this(first, second, unsigned(first), unsigned(second), flags, 0, 0, NO_REGISTERS);
     }
 
     /**
-     * Creates new running context which will preserve everything but the first and second operands will be switched
+     * Creates new RunnerContext with primitive operands and registers.
+     *
+     * @param registerValues values of registers; the array is not copied, so it must not be changed later
+     */
+    RunnerContext(TOperand first, TOperand second, int firstAsInt, int secondAsInt, int flags, int PC, int SP,
+                  int[] registerValues) {
+        this.first = first;
+        this.second = second;
+        this.firstAsInt = firstAsInt;
+        this.secondAsInt = secondAsInt;
+        this.flags = flags;
+        this.PC = PC;
+        this.SP = SP;
+        this.registerValues = registerValues;
+    }
+
+    private static int unsigned(Number operand) {
+        return (operand == null) ? 0 : OperandType.intValue(operand);
+    }
+
+    private static int[] toArray(List<Integer> registers) {
+        int[] values = new int[registers.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = registers.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * Creates running context which will preserve everything but the first and second operands will be switched
      * (first becomes second and vice versa).
      *
-     * @return new runner context with switched first and second operand
+     * A context reused by TestRunner returns a reused context, too.
+     *
+     * @return runner context with switched first and second operand
      */
     public RunnerContext<TOperand> switchFirstAndSecond() {
-        return new RunnerContext<>(second, first, flags, PC, SP, registers);
+        return new RunnerContext<>(second, first, secondAsInt, firstAsInt, flags, PC, SP, registerValues);
+    }
+
+    /**
+     * Get a context which is not changed by following test cases.
+     *
+     * @return this context, or its copy if the context is reused by TestRunner
+     */
+    public RunnerContext<TOperand> copy() {
+        return this;
+    }
+
+    /**
+     * Get the first operand.
+     *
+     * @return first operand
+     */
+    public TOperand getFirst() {
+        return first;
+    }
+
+    /**
+     * Get the second operand.
+     *
+     * @return second operand
+     */
+    public TOperand getSecond() {
+        return second;
+    }
+
+    /**
+     * Get the first operand as unsigned int.
+     *
+     * @return first operand (unsigned)
+     */
+    public int getFirstAsInt() {
+        return firstAsInt;
+    }
+
+    /**
+     * Get the second operand as unsigned int.
+     *
+     * @return second operand (unsigned)
+     */
+    public int getSecondAsInt() {
+        return secondAsInt;
+    }
+
+    /**
+     * Get flags before test execution.
+     *
+     * @return flags
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    /**
+     * Get program counter before test execution.
+     *
+     * @return PC
+     */
+    public int getPC() {
+        return PC;
+    }
+
+    /**
+     * Get stack pointer before test execution.
+     *
+     * @return SP
+     */
+    public int getSP() {
+        return SP;
     }
 
     /**
@@ -93,17 +206,34 @@ public class RunnerContext<TOperand extends Number> {
      * @return register value before test execution
      */
     public int getRegister(int register) {
-        return registers.get(register);
+        return registerValues[register];
+    }
+
+    int getRegistersCount() {
+        return registerValues.length;
     }
 
     @Override
     public String toString() {
         return "RunnerContext{" +
-            "operands=" + Utils.toHexString(first, second) +
-            ", flags=" + Integer.toHexString(flags) +
-            ", PC=" + Integer.toHexString(PC) +
-            ", SP=" + Integer.toHexString(SP) +
+            "operands=" + Utils.toHexString(getFirst(), getSecond()) +
+            ", flags=" + Integer.toHexString(getFlags()) +
+            ", PC=" + Integer.toHexString(getPC()) +
+            ", SP=" + Integer.toHexString(getSP()) +
             ", registers=" + Utils.toHexString(registers.toArray()) +
             '}';
     }
+
+    private final class RegistersView extends AbstractList<Integer> implements RandomAccess {
+
+        @Override
+        public Integer get(int index) {
+            return getRegister(index);
+        }
+
+        @Override
+        public int size() {
+            return getRegistersCount();
+        }
+    }
 }
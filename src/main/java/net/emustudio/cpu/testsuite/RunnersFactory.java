@@ -0,0 +1,42 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Factory of test runners used by parallel generators.
+ *
+ * CpuRunner, CpuVerifier and TestRunner are not thread-safe, and they share single CPU instance. Therefore, parallel
+ * generators call this factory once per worker thread. Each call must create a fresh CPU, CpuRunner, CpuVerifier
+ * and test runners built on top of them.
+ *
+ * @param <TOperand> operands type (Byte, Integer or Long)
+ */
+@FunctionalInterface
+public interface RunnersFactory<TOperand extends Number> {
+
+    /**
+     * Creates new test runners, not shared with any other worker.
+     *
+     * @return test runners (e.g. created by TestBuilder.run())
+     */
+    List<? extends BiConsumer<TOperand, TOperand>> createRunners();
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.jcip.annotations.Immutable;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded source of random test cases.
+ *
+ * Values are the same as of {@code new SplittableRandom(seed).nextLong()}, but any value can be computed directly
+ * from its index. Therefore a test case can be replayed without generating the previous ones, and parallel
+ * workers can split the stream into disjoint ranges of case indexes. Results do not depend on number of threads.
+ */
+@Immutable
+public final class SeededRandom {
+    /**
+     * System property with the global seed (decimal, or hexadecimal prefixed with 0x).
+     */
+    public static final String SEED_PROPERTY = "cpu.testsuite.seed";
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+
+    /**
+     * Creates new seeded random.
+     *
+     * @param seed the seed
+     */
+    public SeededRandom(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get random value of a test case.
+     *
+     * @param index index of the test case
+     * @return random 64-bit value
+     */
+    public long nextLong(long index) {
+        return mix64(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Get additional random value of a test case, when a single value is not enough (e.g. when rejecting
+     * values not satisfying a predicate).
+     *
+     * @param index index of the test case
+     * @param draw index of the value within the test case
+     * @return random 64-bit value
+     */
+    public long nextLong(long index, int draw) {
+        return mix64(nextLong(index) + (draw + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Get random value of a test case in range [0, bound).
+     *
+     * @param index index of the test case
+     * @param draw index of the value within the test case
+     * @param bound upper bound (exclusive), must be positive
+     * @return random value
+     */
+    public int nextInt(long index, int draw, int bound) {
+        return bounded(nextLong(index, draw), bound);
+    }
+
+    /**
+     * Maps upper 32 bits of random value to range [0, bound).
+     *
+     * @param bits random value
+     * @param bound upper bound (exclusive), must be positive
+     * @return value in range [0, bound)
+     */
+    public static int bounded(long bits, int bound) {
+        return (int) (((bits >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Get the seed from system property {@link #SEED_PROPERTY}, or a random one if the property is not set.
+     *
+     * @return the seed
+     */
+    public static long defaultSeed() {
+        String property = System.getProperty(SEED_PROPERTY);
+        if (property == null || property.isBlank()) {
+            return new SplittableRandom().nextLong();
+        }
+        try {
+            return parseSeed(property);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + SEED_PROPERTY + ": " + property, e);
+        }
+    }
+
+    /**
+     * Parse a seed, as it is printed when a random test case fails.
+     *
+     * @param seed decimal seed, or hexadecimal seed prefixed with 0x (all 64 bits, e.g. 0x9e3779b97f4a7c15)
+     * @return the seed
+     * @throws NumberFormatException if the seed is not a valid number
+     */
+    public static long parseSeed(String seed) {
+        String trimmed = seed.trim();
+        if (trimmed.startsWith("0x") || trimmed.startsWith("0X")) {
+            return Long.parseUnsignedLong(trimmed.substring(2), 16);
+        }
+        return Long.parseLong(trimmed);
+    }
+
+    // Stafford variant 13 of MurmurHash3 finalizer, as used by SplittableRandom
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SeededRandom{seed=0x%016x}", seed);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Shrinks operands of a failed test case, similarly to QuickCheck.
+ *
+ * Operands are replaced by simpler values (closer to 0, with fewer set bits), while the test case still fails
+ * in the same verifier, with the same kind of error. The number of re-executions is bounded.
+ */
+final class Shrinker {
+
+    private Shrinker() {
+    }
+
+    /**
+     * Shrink operands of a failed test case.
+     *
+     * The test case still fails the same way if the same verifier throws the same kind of error (see
+     * TestRunner.getLastFailedVerifier()), or - if no verifier has thrown - if the same kind of error is thrown.
+     *
+     * @param runner test runner of the failed test case
+     * @param originalFirst first operand of the failed test case (unsigned)
+     * @param originalSecond second operand of the failed test case (unsigned)
+     * @param failure original failure
+     * @param maxExecutions maximal number of test re-executions
+     * @return failure of the minimal test case (with the original failure suppressed), or the original failure if
+     * the operands could not be shrunk
+     */
+    static Throwable shrink(TestRunner<?, ?> runner, int originalFirst, int originalSecond, Throwable failure,
+                            int maxExecutions) {
+        if (maxExecutions <= 0) {
+            return failure;
+        }
+        int flags = runner.getFlagsOfLastRun();
+        String verifier = runner.getLastFailedVerifier();
+
+        int first = originalFirst;
+        int second = originalSecond;
+        int executions = 0;
+        boolean shrunk = true;
+        while (shrunk && executions < maxExecutions) {
+            shrunk = false;
+            for (long candidate : candidates(first)) {
+                if (executions++ >= maxExecutions) {
+                    break;
+                }
+                if (failsSame(runner, runner.rerun((int) candidate, second, flags, true), failure, verifier)) {
+                    first = (int) candidate;
+                    shrunk = true;
+                    break;
+                }
+            }
+            if (shrunk) {
+                continue;
+            }
+            for (long candidate : candidates(second)) {
+                if (executions++ >= maxExecutions) {
+                    break;
+                }
+                if (failsSame(runner, runner.rerun(first, (int) candidate, flags, true), failure, verifier)) {
+                    second = (int) candidate;
+                    shrunk = true;
+                    break;
+                }
+            }
+        }
+
+        if (first == originalFirst && second == originalSecond) {
+            return failure;
+        }
+        System.err.println(String.format(
+                "Shrunk failed operands [%x, %x] to [%x, %x] in %d re-executions",
+                originalFirst, originalSecond, first, second, Math.min(executions, maxExecutions)
+        ));
+        Throwable minimal = runner.rerun(first, second, flags, false);
+        if (minimal == null) {
+            return failure;
+        }
+        minimal.addSuppressed(failure);
+        return minimal;
+    }
+
+    private static boolean failsSame(TestRunner<?, ?> runner, Throwable e, Throwable failure, String verifier) {
+        return e != null && e.getClass() == failure.getClass()
+                && Objects.equals(runner.getLastFailedVerifier(), verifier);
+    }
+
+    private static TreeSet<Long> candidates(int operand) {
+        long value = operand & 0xFFFFFFFFL;
+        TreeSet<Long> candidates = new TreeSet<>();
+        if (value == 0) {
+            return candidates;
+        }
+        candidates.add(0L);
+        for (long halved = value >>> 1; halved > 0; halved >>>= 1) {
+            candidates.add(halved);
+        }
+        for (long bit = Long.highestOneBit(value); bit > 0; bit >>>= 1) {
+            if ((value & bit) != 0) {
+                candidates.add(value & ~bit);
+            }
+        }
+        candidates.add(value - 1);
+        return candidates;
+    }
+}
@@ -20,18 +20,21 @@ package net.emustudio.cpu.testsuite;
 
 import net.emustudio.cpu.testsuite.verifiers.FlagsVerifier;
 import net.emustudio.cpu.testsuite.verifiers.MemoryByteVerifier;
+import net.emustudio.cpu.testsuite.verifiers.MemoryDwordVerifier;
 import net.emustudio.cpu.testsuite.verifiers.MemoryWordVerifier;
 import net.emustudio.cpu.testsuite.injectors.MemoryAddress;
 import net.emustudio.cpu.testsuite.injectors.MemoryByte;
+import net.emustudio.cpu.testsuite.injectors.MemoryDword;
 import net.emustudio.cpu.testsuite.injectors.MemoryWord;
 import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
 import net.emustudio.cpu.testsuite.injectors.OneOperInstr;
 import net.emustudio.cpu.testsuite.injectors.TwoOperInstr;
+import net.emustudio.cpu.testsuite.injectors.internal.Utils;
 
 import java.util.Objects;
-import java.util.Random;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
 
 @SuppressWarnings({"unused", "unchecked"})
 public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends TestBuilder,
@@ -41,6 +44,7 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
     protected final TestRunner<TCpuRunner, TOperand> runner;
 
     protected Function<RunnerContext<TOperand>, Integer> lastOperation;
+    private boolean commutative;
 
     protected TestBuilder(TCpuRunner cpuRunner, TCpuVerifier cpuVerifier) {
         this.cpuRunner = Objects.requireNonNull(cpuRunner);
@@ -58,9 +62,20 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
         return (TTestBuilder)this;
     }
 
+    /**
+     * Set register to a random value.
+     *
+     * The value is derived from the Generator seed and the operands, so a replayed test case gets the same value.
+     *
+     * @param register register index
+     * @param maxValue maximal value (inclusive)
+     * @return this
+     */
     public TTestBuilder registerIsRandom(int register, int maxValue) {
-        Random random = new Random();
-        runner.injectFirst((tmpRunner, argument) -> cpuRunner.setRegister(register, random.nextInt(maxValue + 1)));
+        runner.injectTwoOperandsAsInt((tmpRunner, first, second) -> {
+            long operands = ((long) first << 32) | (second & 0xFFFFFFFFL);
+            tmpRunner.setRegister(register, Generator.getRandom().nextInt(operands, register, maxValue + 1));
+        });
         return (TTestBuilder)this;
     }
 
@@ -88,6 +103,19 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
         return verifyFlagsOfLastOp(flagsCheck);
     }
 
+    /**
+     * Verify flags computed from primitive operation.
+     *
+     * @param flagsCheck flags checker
+     * @param operator operation taking unsigned operands (first, second)
+     * @return this
+     */
+    public TTestBuilder verifyFlags(FlagsCheck<TOperand, ?> flagsCheck, IntBinaryOperator operator) {
+        lastOperation = asFunction(operator);
+        runner.verifyAfterTest(new FlagsVerifier<>(cpuVerifier, operator, flagsCheck));
+        return (TTestBuilder)this;
+    }
+
     public TTestBuilder verifyFlagsOfLastOp(FlagsCheck<TOperand, ?> flagsCheck) {
         if (lastOperation == null) {
             throw new IllegalStateException("Last operation is not set!");
@@ -102,6 +130,17 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
         return verifyByte(address);
     }
 
+    public TTestBuilder verifyByte(int address, IntBinaryOperator operator) {
+        return verifyByte(context -> address, operator);
+    }
+
+    public TTestBuilder verifyWord(Function<RunnerContext<TOperand>, Integer> addressOperator,
+                                   IntBinaryOperator operator) {
+        lastOperation = asFunction(operator);
+        runner.verifyAfterTest(new MemoryWordVerifier<TOperand>(cpuVerifier, operator, addressOperator));
+        return (TTestBuilder)this;
+    }
+
     public TTestBuilder verifyWord(Function<RunnerContext<TOperand>, Integer> addressOperator,
                                    Function<RunnerContext<TOperand>, Integer> operator) {
         lastOperation = operator;
@@ -109,6 +148,20 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
         return (TTestBuilder)this;
     }
 
+    public TTestBuilder verifyDword(Function<RunnerContext<TOperand>, Integer> addressOperator,
+                                    IntBinaryOperator operator) {
+        lastOperation = asFunction(operator);
+        runner.verifyAfterTest(new MemoryDwordVerifier<TOperand>(cpuVerifier, operator, addressOperator));
+        return (TTestBuilder)this;
+    }
+
+    public TTestBuilder verifyDword(Function<RunnerContext<TOperand>, Integer> addressOperator,
+                                    Function<RunnerContext<TOperand>, Integer> operator) {
+        lastOperation = operator;
+        runner.verifyAfterTest(new MemoryDwordVerifier<TOperand>(cpuVerifier, operator, addressOperator));
+        return (TTestBuilder)this;
+    }
+
     public TTestBuilder verifyByte(int address) {
         return verifyByte(context -> address);
     }
@@ -119,6 +172,13 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
         return verifyByte(addressOperator);
     }
 
+    public TTestBuilder verifyByte(Function<RunnerContext<TOperand>, Integer> addressOperator,
+                                   IntBinaryOperator operator) {
+        lastOperation = asFunction(operator);
+        runner.verifyAfterTest(new MemoryByteVerifier<TOperand>(cpuVerifier, operator, addressOperator));
+        return (TTestBuilder)this;
+    }
+
     public TTestBuilder verifyByte(Function<RunnerContext<TOperand>, Integer> addressOperator) {
         if (lastOperation == null) {
             throw new IllegalStateException("Last operation is not set!");
@@ -127,6 +187,56 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
         return (TTestBuilder)this;
     }
 
+    /**
+     * Declare that the tested operation is commutative (e.g. ADD, AND, OR, XOR), so exhaustive binary generators
+     * can skip symmetric operand pairs.
+     *
+     * It applies only to the next test runner, as injectors and verifiers.
+     *
+     * @return this
+     */
+    public TTestBuilder commutative() {
+        commutative = true;
+        return (TTestBuilder)this;
+    }
+
+    /**
+     * Skip program and memory injectors if their operands did not change since the previous test case.
+     *
+     * It applies to all following test runners. See TestRunner.injectIncrementally() for limitations.
+     *
+     * @return this
+     */
+    public TTestBuilder injectIncrementally() {
+        runner.injectIncrementally();
+        return (TTestBuilder)this;
+    }
+
+    /**
+     * Run operand-independent injectors (e.g. setFlags(), or the instruction in run()) only once per sweep.
+     *
+     * It applies to all following test runners. See TestRunner.hoistInvariantInjectors() for limitations.
+     *
+     * @return this
+     */
+    public TTestBuilder hoistInvariantInjectors() {
+        runner.hoistInvariantInjectors();
+        return (TTestBuilder)this;
+    }
+
+    /**
+     * Reuse a single RunnerContext for all test cases, so a test case does not allocate a context.
+     *
+     * It applies to all following test runners. Verifiers must read the context by its methods; see
+     * TestRunner.reuseContext().
+     *
+     * @return this
+     */
+    public TTestBuilder reuseContext() {
+        runner.reuseContext();
+        return (TTestBuilder)this;
+    }
+
     public TTestBuilder keepCurrentInjectorsAfterRun() {
         runner.keepCurrentInjectorsAfterClear();
         return (TTestBuilder)this;
@@ -138,82 +248,90 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
     }
 
     public TTestBuilder firstIsMemoryByteAt(int address) {
-        runner.injectFirst(new MemoryByte<>(address));
+        runner.injectFirstAsInt(new MemoryByte<>(address));
         return (TTestBuilder)this;
     }
 
     public TTestBuilder secondIsMemoryByteAt(int address) {
-        runner.injectSecond(new MemoryByte<>(address));
+        runner.injectSecondAsInt(new MemoryByte<>(address));
         return (TTestBuilder)this;
     }
 
     public TTestBuilder firstIsMemoryWordAt(int address) {
-        runner.injectFirst(new MemoryWord<>(address));
+        runner.injectFirstAsInt(new MemoryWord<>(address));
         return (TTestBuilder)this;
     }
 
     @SuppressWarnings("unused")
     public TTestBuilder secondIsMemoryWordAt(int address) {
-        runner.injectSecond(new MemoryWord<>(address));
+        runner.injectSecondAsInt(new MemoryWord<>(address));
+        return (TTestBuilder)this;
+    }
+
+    public TTestBuilder firstIsMemoryDwordAt(int address) {
+        runner.injectFirstAsInt(new MemoryDword<>(address));
+        return (TTestBuilder)this;
+    }
+
+    public TTestBuilder secondIsMemoryDwordAt(int address) {
+        runner.injectSecondAsInt(new MemoryDword<>(address));
         return (TTestBuilder)this;
     }
 
     public TTestBuilder firstIsMemoryAddressByte(int value) {
-        runner.injectFirst(new MemoryAddress<>((byte)value));
+        runner.injectFirstAsInt(new MemoryAddress<>((byte)value));
         return (TTestBuilder)this;
     }
 
     public TTestBuilder secondIsMemoryAddressByte(int value) {
-        runner.injectSecond(new MemoryAddress<>((byte) value));
+        runner.injectSecondAsInt(new MemoryAddress<>((byte) value));
         return (TTestBuilder)this;
     }
 
     public TTestBuilder firstIsMemoryAddressWord(int value) {
-        runner.injectFirst(new MemoryAddress<>(value));
+        runner.injectFirstAsInt(new MemoryAddress<>(value));
         return (TTestBuilder)this;
     }
 
     public TTestBuilder secondIsMemoryAddressWord(int value) {
-        runner.injectSecond(new MemoryAddress<>(value));
+        runner.injectSecondAsInt(new MemoryAddress<>(value));
         return (TTestBuilder)this;
     }
 
     public TTestBuilder firstIsAddressAndSecondIsMemoryWord() {
-        runner.injectTwoOperands((runner, first, second) -> {
-            runner.ensureProgramSize(first.intValue() + 4);
-            runner.setByte(first.intValue(), second.intValue() & 0xFF);
-            runner.setByte(first.intValue() + 1, (second.intValue() >>> 8) & 0xFF);
+        runner.injectTwoOperandsAsInt((runner, first, second) -> {
+            runner.ensureProgramSize(first + 4);
+            Utils.setBytes(runner, first, second, 2);
         });
         return (TTestBuilder)this;
     }
 
     public TTestBuilder secondIsAddressAndFirstIsMemoryWord() {
-        runner.injectTwoOperands((runner, first, second) -> {
-            runner.ensureProgramSize(second.intValue() + 4);
-            runner.setByte(second.intValue(), first.intValue() & 0xFF);
-            runner.setByte(second.intValue() + 1, (first.intValue() >>> 8) & 0xFF);
+        runner.injectTwoOperandsAsInt((runner, first, second) -> {
+            runner.ensureProgramSize(second + 4);
+            Utils.setBytes(runner, second, first, 2);
         });
         return (TTestBuilder)this;
     }
 
     public TTestBuilder firstIsAddressAndSecondIsMemoryByte() {
-        runner.injectTwoOperands((runner, first, second) -> {
-            runner.ensureProgramSize(first.intValue() + 4);
-            runner.setByte(first.intValue(), second.intValue() & 0xFF);
+        runner.injectTwoOperandsAsInt((runner, first, second) -> {
+            runner.ensureProgramSize(first + 4);
+            runner.setByte(first, second & 0xFF);
         });
         return (TTestBuilder)this;
     }
 
     public TTestBuilder secondIsAddressAndFirstIsMemoryByte() {
-        runner.injectTwoOperands((runner, first, second) -> {
-            runner.ensureProgramSize(second.intValue() + 4);
-            runner.setByte(second.intValue(), first.intValue() & 0xFF);
+        runner.injectTwoOperandsAsInt((runner, first, second) -> {
+            runner.ensureProgramSize(second + 4);
+            runner.setByte(second, first & 0xFF);
         });
         return (TTestBuilder)this;
     }
 
     public TTestBuilder setFlags(int flags) {
-        runner.injectFirst((tmpRunner, argument) -> tmpRunner.setFlags(flags));
+        runner.injectNoOperand(tmpRunner -> tmpRunner.setFlags(flags));
         return (TTestBuilder)this;
     }
 
@@ -261,8 +379,16 @@ public abstract class TestBuilder<TOperand extends Number, TTestBuilder extends
         );
     }
 
+    private static <TOperand extends Number> Function<RunnerContext<TOperand>, Integer> asFunction(IntBinaryOperator operator) {
+        return context -> operator.applyAsInt(context.getFirstAsInt(), context.getSecondAsInt());
+    }
+
     private TestRunner<TCpuRunner, TOperand> prepareTest() {
         TestRunner<TCpuRunner, TOperand> tmpRunner = runner.clone();
+        if (commutative) {
+            tmpRunner.commutative();
+            commutative = false;
+        }
 
         runner.clearInjectors();
         runner.clearVerifiers();
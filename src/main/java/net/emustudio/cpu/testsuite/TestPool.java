@@ -0,0 +1,124 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Pool of test environments, one per thread.
+ *
+ * Test environment is a test builder with its own CPU, CpuRunner, CpuVerifier (and FlagsCheck instances, if the
+ * builder keeps them), created by a user factory. CpuRunner, CpuVerifier, FlagsCheck and TestRunner are not
+ * thread-safe, so an environment is used only by the thread which created it. A FlagsCheck must therefore be created
+ * by the environment factory or by the specification, never shared by more environments. It is created when the thread needs it for the
+ * first time, and then it is reused by all following specifications run on that thread. Worker threads of
+ * parallel generators are reused across sweeps, so following sweeps run on already warmed-up environments.
+ *
+ * Together with TestSpec, the same test can be run sequentially or on all cores without any change:
+ *
+ * <pre>{@code
+ * TestPool<IntegerTestBuilder, Integer> pool = new TestPool<>(() -> {
+ *     CpuImpl cpu = ...;
+ *     ShortMemoryStub memoryStub = new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+ *     return new IntegerTestBuilder(new CpuRunnerImpl(cpu, memoryStub), new CpuVerifierImpl(cpu, memoryStub));
+ * });
+ * TestSpec<IntegerTestBuilder, Integer> addHL = test -> List.of(test
+ *     .firstIsPair(REG_PAIR_HL)
+ *     .secondIsPair(REG_PAIR_BC)
+ *     .verifyPair(REG_PAIR_HL, context -> context.getFirst() + context.getSecond())
+ *     .run(0x09));
+ *
+ * Generator.forAll16bitBinaryInParallel(pool.runners(addHL));
+ * }</pre>
+ *
+ * @param <TTestBuilder> type of the test builder
+ * @param <TOperand> operands type (Byte, Integer or Long)
+ */
+@ThreadSafe
+public final class TestPool<TTestBuilder extends TestBuilder<TOperand, ?, ?, ?>, TOperand extends Number> {
+    private final Supplier<? extends TTestBuilder> environmentFactory;
+    private final ThreadLocal<TTestBuilder> environments;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates new pool of test environments.
+     *
+     * @param environmentFactory factory of test environments. Each call must create a fresh CPU, CpuRunner and
+     *                           CpuVerifier, and return a test builder built on top of them.
+     */
+    public TestPool(Supplier<? extends TTestBuilder> environmentFactory) {
+        this.environmentFactory = Objects.requireNonNull(environmentFactory);
+        this.environments = ThreadLocal.withInitial(this::createEnvironment);
+    }
+
+    private TTestBuilder createEnvironment() {
+        TTestBuilder environment = Objects.requireNonNull(
+                environmentFactory.get(), "Environment factory returned null"
+        );
+        size.incrementAndGet();
+        return environment;
+    }
+
+    /**
+     * Get test environment of the current thread. It is created if the thread does not have one yet.
+     *
+     * @return test builder owned by the current thread
+     */
+    public TTestBuilder environment() {
+        return environments.get();
+    }
+
+    /**
+     * Get factory of test runners for parallel generators (or OperandSpace.perThread()).
+     *
+     * The specification is applied to the test environment of each worker thread.
+     *
+     * @param spec test specification
+     * @return factory of test runners
+     */
+    public RunnersFactory<TOperand> runners(TestSpec<TTestBuilder, TOperand> spec) {
+        Objects.requireNonNull(spec);
+        return () -> spec.define(environment());
+    }
+
+    /**
+     * Get test runners for sequential generators, running in the test environment of the current thread.
+     *
+     * @param spec test specification
+     * @return test runners
+     */
+    @SuppressWarnings("unchecked")
+    public BiConsumer<TOperand, TOperand>[] runnersOnCurrentThread(TestSpec<TTestBuilder, TOperand> spec) {
+        return spec.define(environment()).toArray(new BiConsumer[0]);
+    }
+
+    /**
+     * Get number of test environments created so far (i.e. number of threads which used this pool).
+     *
+     * @return number of test environments
+     */
+    public int size() {
+        return size.get();
+    }
+}
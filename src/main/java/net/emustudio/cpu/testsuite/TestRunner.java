@@ -18,15 +18,23 @@
  */
 package net.emustudio.cpu.testsuite;
 
+import net.emustudio.cpu.testsuite.injectors.IntTwoOperInjector;
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.injectors.OneOperInstr;
+import net.emustudio.cpu.testsuite.injectors.PersistentInjector;
 import net.emustudio.cpu.testsuite.injectors.TwoOperInjector;
+import net.emustudio.cpu.testsuite.injectors.TwoOperInstr;
+import net.emustudio.cpu.testsuite.verifiers.FlagsVerifier;
 import net.jcip.annotations.NotThreadSafe;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.StringJoiner;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Test runner/executor.
@@ -39,31 +47,128 @@ import java.util.function.Consumer;
  * After, the resulting CPU state should be verified by all provided verifiers. Again, all verifiers know
  * what to do. They are using CpuVerifier class for checking the CPU state. They are provided by user.
  *
+ * The test can be executed with boxed operands (as BiConsumer), or with primitive operands (as OperandPairConsumer).
+ * Primitive operands are boxed only if some boxed injector or verifier needs them.
+ *
  * @param <TCpuRunner> CPU Runner type
- * @param <TOperand> operands type (Byte or Integer)
+ * @param <TOperand> operands type (Byte, Integer or Long)
  */
 @NotThreadSafe
-public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TOperand, TOperand> {
+public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number>
+        implements BiConsumer<TOperand, TOperand>, OperandPairConsumer {
     private final TCpuRunner cpuRunner;
 
-    private final List<TwoOperInjector<TCpuRunner, TOperand>> injectors = new ArrayList<>();
-    private final List<TwoOperInjector<TCpuRunner, TOperand>> injectorsToKeep = new ArrayList<>();
+    private final List<Injector<TCpuRunner, TOperand>> injectors = new ArrayList<>();
+    private final List<Injector<TCpuRunner, TOperand>> injectorsToKeep = new ArrayList<>();
 
     private final List<Consumer<RunnerContext<TOperand>>> verifiers = new ArrayList<>();
     private final List<Consumer<RunnerContext<TOperand>>> verifiersToKeep = new ArrayList<>();
 
+    private OperandType operandType;
+    private int first;
+    private int second;
+    private TOperand boxedFirst;
+    private TOperand boxedSecond;
+
     private int flagsBefore = -1;
     private boolean printInjectingProcess;
+    private boolean commutative;
+
+    private int flagsOfLastRun = -1;
+    private Throwable lastFailure;
+    private String lastFailedVerifier;
+    private boolean quiet;
+
+    private boolean injectIncrementally;
+    private boolean injectorsUnchanged;
+
+    private static final int NO_OPERAND = 0;
+    private static final int FIRST_OPERAND = 1;
+    private static final int SECOND_OPERAND = 2;
+
+    private static final int BATCH_WRITER_UNKNOWN = -2;
+    private static final int NOT_BATCHABLE = -1;
+    private static final int MAX_BATCH_END = 0xFF00; // leave top of 64 KB memory for the stack
+
+    private CpuRunner.Snapshot fixture;
+    private boolean hoistInvariantInjectors;
+    private FailureReport failureReport;
+    private PhaseProfile profile;
+    private boolean reuseContext;
+    private CpuRunner.Snapshot hoistedFixture;
+    private boolean hoistedInjectorsSetFlags;
+
+    private int batchWriter = BATCH_WRITER_UNKNOWN;
+    private int[] batchOrigins = new int[0];
+    private int batchEnd;
+
+    /**
+     * Injector bound to the executing test runner, which holds operands of current test case.
+     */
+    @FunctionalInterface
+    private interface InjectorBody<TCpuRunner extends CpuRunner<?>, TOperand extends Number> {
+        void inject(TestRunner<TCpuRunner, TOperand> runner);
+    }
+
+    private static final class Injector<TCpuRunner extends CpuRunner<?>, TOperand extends Number> {
+        private final int operands;
+        private final boolean persistent;
+        private final Object target; // original injector, for printing
+        private final InjectorBody<TCpuRunner, TOperand> body;
+
+        private Injector(int operands, Object injector, InjectorBody<TCpuRunner, TOperand> body) {
+            this.operands = operands;
+            this.persistent = (injector instanceof PersistentInjector);
+            this.target = injector;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Injectors and verifiers frozen into flat arrays, so executing a test case does not allocate.
+     *
+     * The plan is compiled before the first test case, and again after injectors or verifiers change.
+     */
+    private static final class Plan<TCpuRunner extends CpuRunner<?>, TOperand extends Number> {
+        private final Injector<TCpuRunner, TOperand>[] injectors;
+        private final Consumer<RunnerContext<TOperand>>[] verifiers;
+        private final String instruction;
+        private PhaseProfile.Recorder recorder;
+
+        @SuppressWarnings("unchecked")
+        private Plan(List<Injector<TCpuRunner, TOperand>> injectors, List<Consumer<RunnerContext<TOperand>>> verifiers) {
+            this.injectors = injectors.toArray(new Injector[0]);
+            this.verifiers = verifiers.toArray(new Consumer[0]);
+            this.instruction = describeInstruction(injectors);
+        }
+    }
+
+    private Plan<TCpuRunner, TOperand> plan;
+    private final ReusableRunnerContext<TOperand> reusedContext = new ReusableRunnerContext<>();
+    private int[] registerValues = RunnerContext.NO_REGISTERS;
 
     /**
      * Creates new TestRunner.
      *
+     * Operand type is determined by the first executed test.
+     *
      * @param cpuRunner CPU runner object (for manipulating CPU state).
      */
     public TestRunner(TCpuRunner cpuRunner) {
         this.cpuRunner = Objects.requireNonNull(cpuRunner);
     }
 
+    /**
+     * Creates new TestRunner.
+     *
+     * @param cpuRunner CPU runner object (for manipulating CPU state).
+     * @param operandType type of operands
+     */
+    public TestRunner(TCpuRunner cpuRunner, OperandType operandType) {
+        this(cpuRunner);
+        this.operandType = Objects.requireNonNull(operandType);
+    }
+
     /**
      * Keep currently set injectors after test is executed.
      *
@@ -76,6 +181,24 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
         injectorsToKeep.addAll(injectors);
     }
 
+    /**
+     * Skip injectors which write only the program or memory (see PersistentInjector), if operands they use did not
+     * change since the previous test case.
+     *
+     * It is useful in exhaustive sweeps, mainly with Gray-code ordering (see Generator.setOrdering()), where
+     * consecutive test cases differ in a single operand. All injectors run again if the previous test case failed,
+     * if injectors were changed, or if another test runner used the same CpuRunner in between.
+     *
+     * NOTE: Do not use it if the tested instruction writes memory which it also reads, because the memory is not
+     * restored between test cases.
+     *
+     * @return this
+     */
+    public TestRunner<TCpuRunner, TOperand> injectIncrementally() {
+        this.injectIncrementally = true;
+        return this;
+    }
+
     /**
      * Keep currently set verifiers after test is executed.
      *
@@ -89,6 +212,78 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
     }
 
 
+    /**
+     * Restore given snapshot (see CpuRunner.snapshot()) instead of resetting the CPU before each test case.
+     *
+     * Injectors then run on top of the restored fixture. Incremental injection and batch execution are not used.
+     *
+     * @param fixture snapshot of the CPU and memory
+     * @return this
+     */
+    public TestRunner<TCpuRunner, TOperand> restoreBeforeEachTest(CpuRunner.Snapshot fixture) {
+        this.fixture = Objects.requireNonNull(fixture);
+        return this;
+    }
+
+    /**
+     * Run operand-independent injectors (see injectNoOperand()) only once, instead of before each test case.
+     *
+     * Their effect is captured in a snapshot (see CpuRunner.snapshot()), which is restored before each test case
+     * instead of resetting the CPU. Only operand-dependent injectors are then run for each test case, after the
+     * operand-independent ones. Therefore, it must not matter in which order they run.
+     *
+     * If the operand-independent injectors set flags (e.g. TestBuilder.setFlags()), flags of the previous test case
+     * are not set before the test case, so each test case starts with the injected flags.
+     *
+     * Incremental injection and batch execution are not used.
+     *
+     * @return this
+     */
+    public TestRunner<TCpuRunner, TOperand> hoistInvariantInjectors() {
+        this.hoistInvariantInjectors = true;
+        return this;
+    }
+
+    /**
+     * Continue after failed verifications, and record them into a report instead of throwing them.
+     *
+     * Other failures (e.g. of injectors or of the CPU run state) are still thrown.
+     *
+     * @param failureReport report of failures; it can be shared by more test runners
+     * @return this
+     */
+    public TestRunner<TCpuRunner, TOperand> collectFailures(FailureReport failureReport) {
+        this.failureReport = Objects.requireNonNull(failureReport);
+        return this;
+    }
+
+    /**
+     * Record durations of test case phases (reset, inject, step, verify) into a profile.
+     *
+     * Profiled test runners do not run test cases in batches (see runBatch()).
+     *
+     * @param profile latency profile; it can be shared by more test runners
+     * @return this
+     */
+    public TestRunner<TCpuRunner, TOperand> profile(PhaseProfile profile) {
+        this.profile = Objects.requireNonNull(profile);
+        return this;
+    }
+
+    /**
+     * Reuse a single RunnerContext for all test cases, instead of creating a new one for each test case.
+     *
+     * The context is filled in place, and operands are boxed only when they are read, so a test case does not
+     * allocate a context. Public fields of the context (e.g. context.first) are not filled: all verifiers must read
+     * the context by its methods (e.g. context.getFirst()), and must not keep it (see RunnerContext.copy()).
+     *
+     * @return this
+     */
+    public TestRunner<TCpuRunner, TOperand> reuseContext() {
+        this.reuseContext = true;
+        return this;
+    }
+
     /**
      * Print the process of injecting the operands into injectors. Useful for debugging.
      */
@@ -96,10 +291,28 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
         this.printInjectingProcess = true;
     }
 
+    /**
+     * Declare that the tested operation is commutative (the result does not depend on the order of operands).
+     *
+     * Exhaustive binary generators then run only half of the operand pairs (first &lt;= second), if all runners
+     * are commutative. Otherwise, all pairs are run.
+     *
+     * @return this
+     */
+    public TestRunner<TCpuRunner, TOperand> commutative() {
+        this.commutative = true;
+        return this;
+    }
+
+    public boolean isCommutative() {
+        return commutative;
+    }
+
     /**
      * Inject a CpuRunner to all specified injectors when operands are not needed.
      *
-     * For example, it might be useful when injecting an instruction with no operands.
+     * For example, it might be useful when injecting an instruction with no operands. Such injectors are
+     * operand-independent, so they can be run only once per sweep (see hoistInvariantInjectors()).
      *
      * @param injectors injectors requiring only CpuRunner (no operands)
      * @return this
@@ -107,10 +320,7 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
     @SafeVarargs
     public final TestRunner<TCpuRunner, TOperand> injectNoOperand(Consumer<TCpuRunner>... injectors) {
         for (Consumer<TCpuRunner> injector : injectors) {
-            this.injectors.add((cpuRunner, first, second) -> {
-                printInjectionIfEnabled("", injector);
-                injector.accept(cpuRunner);
-            });
+            addInjector(NO_OPERAND, injector, runner -> injector.accept(runner.cpuRunner));
         }
         return this;
     }
@@ -120,16 +330,22 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
      *
      * RunnerContext has always two operands. In this case, the first one is used for injection.
      *
+     * Instructions (OneOperInstr) are injected with primitive operands, so the operand is not boxed.
+     *
      * @param injectors injectors requiring CpuRunner and a single operand
      * @return this
      */
     @SafeVarargs
+    @SuppressWarnings("unchecked")
     public final TestRunner<TCpuRunner, TOperand> injectFirst(BiConsumer<TCpuRunner, TOperand>... injectors) {
         for (BiConsumer<TCpuRunner, TOperand> injector : injectors) {
-            this.injectors.add((cpuRunner, first, second) -> {
-                printInjectionIfEnabled("first", first, injector);
-                injector.accept(cpuRunner, first);
-            });
+            if (injector instanceof OneOperInstr) {
+                OneOperInstr<TCpuRunner, TOperand> instruction = (OneOperInstr<TCpuRunner, TOperand>) injector;
+                addInjector(FIRST_OPERAND, injector,
+                        runner -> instruction.accept(runner.cpuRunner, runner.first, runner.operandType));
+            } else {
+                addInjector(FIRST_OPERAND, injector, runner -> injector.accept(runner.cpuRunner, runner.boxedFirst()));
+            }
         }
         return this;
     }
@@ -139,16 +355,22 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
      *
      * RunnerContext has always two operands. In this case, the second one is used for injection.
      *
+     * Instructions (OneOperInstr) are injected with primitive operands, so the operand is not boxed.
+     *
      * @param injectors injectors requiring CpuRunner and a single operand
      * @return this
      */
     @SafeVarargs
+    @SuppressWarnings("unchecked")
     public final TestRunner<TCpuRunner, TOperand> injectSecond(BiConsumer<TCpuRunner, TOperand>... injectors) {
         for (BiConsumer<TCpuRunner, TOperand> injector : injectors) {
-            this.injectors.add((cpuRunner, first, second) -> {
-                printInjectionIfEnabled("second", second, injector);
-                injector.accept(cpuRunner, second);
-            });
+            if (injector instanceof OneOperInstr) {
+                OneOperInstr<TCpuRunner, TOperand> instruction = (OneOperInstr<TCpuRunner, TOperand>) injector;
+                addInjector(SECOND_OPERAND, injector,
+                        runner -> instruction.accept(runner.cpuRunner, runner.second, runner.operandType));
+            } else {
+                addInjector(SECOND_OPERAND, injector, runner -> injector.accept(runner.cpuRunner, runner.boxedSecond()));
+            }
         }
         return this;
     }
@@ -159,16 +381,66 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
      * RunnerContext has always two operands. In this case, both are used for injection, in the order
      * (first, second).
      *
+     * Instructions (TwoOperInstr) are injected with primitive operands, so the operands are not boxed.
+     *
      * @param injectors injectors requiring CpuRunner and two operand
      * @return this
      */
     @SafeVarargs
+    @SuppressWarnings("unchecked")
     public final TestRunner<TCpuRunner, TOperand> injectTwoOperands(TwoOperInjector<TCpuRunner, TOperand>... injectors) {
         for (TwoOperInjector<TCpuRunner, TOperand> injector : injectors) {
-            this.injectors.add((cpuRunner, first, second) -> {
-                printInjectionIfEnabled("(first,second)", first, second, injector);
-                injector.inject(cpuRunner, first, second);
-            });
+            if (injector instanceof TwoOperInstr) {
+                TwoOperInstr<TCpuRunner, TOperand> instruction = (TwoOperInstr<TCpuRunner, TOperand>) injector;
+                addInjector(FIRST_OPERAND | SECOND_OPERAND, injector, runner -> instruction.inject(
+                        runner.cpuRunner, runner.first, runner.second, runner.operandType));
+            } else {
+                addInjector(FIRST_OPERAND | SECOND_OPERAND, injector,
+                        runner -> injector.inject(runner.cpuRunner, runner.boxedFirst(), runner.boxedSecond()));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Inject a CpuRunner and the first operand (as unsigned int) into specified injectors.
+     *
+     * @param injectors injectors requiring CpuRunner and a single primitive operand
+     * @return this
+     */
+    @SafeVarargs
+    public final TestRunner<TCpuRunner, TOperand> injectFirstAsInt(ObjIntConsumer<TCpuRunner>... injectors) {
+        for (ObjIntConsumer<TCpuRunner> injector : injectors) {
+            addInjector(FIRST_OPERAND, injector, runner -> injector.accept(runner.cpuRunner, runner.first));
+        }
+        return this;
+    }
+
+    /**
+     * Inject a CpuRunner and the second operand (as unsigned int) into specified injectors.
+     *
+     * @param injectors injectors requiring CpuRunner and a single primitive operand
+     * @return this
+     */
+    @SafeVarargs
+    public final TestRunner<TCpuRunner, TOperand> injectSecondAsInt(ObjIntConsumer<TCpuRunner>... injectors) {
+        for (ObjIntConsumer<TCpuRunner> injector : injectors) {
+            addInjector(SECOND_OPERAND, injector, runner -> injector.accept(runner.cpuRunner, runner.second));
+        }
+        return this;
+    }
+
+    /**
+     * Inject a CpuRunner and two operands (as unsigned ints) into specified injectors.
+     *
+     * @param injectors injectors requiring CpuRunner and two primitive operands
+     * @return this
+     */
+    @SafeVarargs
+    public final TestRunner<TCpuRunner, TOperand> injectTwoOperandsAsInt(IntTwoOperInjector<TCpuRunner>... injectors) {
+        for (IntTwoOperInjector<TCpuRunner> injector : injectors) {
+            addInjector(FIRST_OPERAND | SECOND_OPERAND, injector,
+                    runner -> injector.inject(runner.cpuRunner, runner.first, runner.second));
         }
         return this;
     }
@@ -176,31 +448,52 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
     public void clearInjectors() {
         injectors.clear();
         injectors.addAll(injectorsToKeep);
+        injectorsChanged();
+    }
+
+    private void addInjector(int operands, Object injector, InjectorBody<TCpuRunner, TOperand> body) {
+        injectors.add(new Injector<>(operands, injector, body));
+        injectorsChanged();
+    }
+
+    private void injectorsChanged() {
+        plan = null;
+        injectorsUnchanged = false;
+        batchWriter = BATCH_WRITER_UNKNOWN;
+        hoistedFixture = null;
     }
 
     public void clearVerifiers() {
         verifiers.clear();
         verifiers.addAll(verifiersToKeep);
+        plan = null;
     }
 
     public void clearAllVerifiers() {
         verifiers.clear();
         verifiersToKeep.clear();
+        plan = null;
     }
 
-    private void printInjectionIfEnabled(String formatString, Object... arguments) {
-        if (printInjectingProcess) {
-            String argumentFormat = "";
-            if (arguments.length > 1) {
-                argumentFormat = "=%x";
-            } else if (arguments.length > 2) {
-                argumentFormat = "=(%x,%x)";
-            }
-            if (arguments.length > 0) {
-                argumentFormat += " (to %s)";
-            }
-            System.out.println(String.format("Injecting " + formatString + argumentFormat, arguments));
+    private void printInjection(Injector<TCpuRunner, TOperand> injector) {
+        if (quiet) {
+            return;
         }
+        String operands;
+        switch (injector.operands) {
+            case FIRST_OPERAND:
+                operands = String.format(" first=%x", first);
+                break;
+            case SECOND_OPERAND:
+                operands = String.format(" second=%x", second);
+                break;
+            case FIRST_OPERAND | SECOND_OPERAND:
+                operands = String.format(" (first,second)=(%x,%x)", first, second);
+                break;
+            default:
+                operands = "";
+        }
+        System.out.println("Injecting" + operands + " (to " + injector.target + ")");
     }
 
     /**
@@ -211,17 +504,47 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
     @SafeVarargs
     public final void verifyAfterTest(Consumer<RunnerContext<TOperand>>... verifiers) {
         Collections.addAll(this.verifiers, verifiers);
+        plan = null;
     }
 
-    private void verify(RunnerContext<TOperand> context) {
-        verifiers.forEach(verifier -> {
+    /**
+     * Run all verifiers.
+     *
+     * Failures are recorded into the failure report, if it is set; otherwise the first failure is thrown.
+     */
+    private void verify(Plan<TCpuRunner, TOperand> plan, RunnerContext<TOperand> context) {
+        Consumer<RunnerContext<TOperand>>[] verifiers = plan.verifiers;
+        for (int i = 0; i < verifiers.length; i++) {
+            Consumer<RunnerContext<TOperand>> verifier = verifiers[i];
             try {
                 verifier.accept(context);
+            } catch (AssertionError e) {
+                if (failureReport == null) {
+                    printFailure(context, verifier);
+                    lastFailedVerifier = FailureReport.verifierKey(plan.instruction, i, verifier);
+                    throw e;
+                }
+                failureReport.record(plan.instruction, i, verifier, context, e, wrongFlags(verifier, context));
             } catch (Throwable e) {
-                System.err.println("Verification failed. Context: " + context + "\nVerifier: " + verifier);
+                printFailure(context, verifier);
+                lastFailedVerifier = FailureReport.verifierKey(plan.instruction, i, verifier);
                 throw e;
             }
-        });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int wrongFlags(Consumer<RunnerContext<TOperand>> verifier, RunnerContext<TOperand> context) {
+        if (verifier instanceof FlagsVerifier) {
+            return ((FlagsVerifier<TOperand>) verifier).wrongFlags(context, cpuRunner.getFlags());
+        }
+        return 0;
+    }
+
+    private void printFailure(RunnerContext<TOperand> context, Consumer<RunnerContext<TOperand>> verifier) {
+        if (!quiet) {
+            System.err.println("Verification failed. Context: " + context + "\nVerifier: " + verifier);
+        }
     }
 
     /**
@@ -238,29 +561,468 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
      */
     @Override
     public void accept(TOperand first, TOperand second) {
-        cpuRunner.reset();
+        if (operandType == null) {
+            operandType = OperandType.of(first);
+        }
+        boxedFirst = first;
+        boxedSecond = second;
+        run(operandType.toInt(first), operandType.toInt(second));
+    }
+
+    /**
+     * Execute the test with primitive operands.
+     *
+     * Operands are boxed only if some boxed injector or verifier needs them.
+     *
+     * @param first first operand (unsigned)
+     * @param second second operand (unsigned)
+     * @throws IllegalStateException if operand type is not known
+     * @see #accept(Number, Number)
+     */
+    @Override
+    public void acceptOperands(int first, int second) {
+        if (operandType == null) {
+            throw new IllegalStateException("Operand type is not known. Use TestRunner(cpuRunner, operandType)");
+        }
+        boxedFirst = null;
+        boxedSecond = null;
+        run(first, second);
+    }
+
+    private void run(int first, int second) {
+        try {
+            runCase(first, second);
+        } catch (Throwable e) {
+            lastFailure = e;
+            throw e;
+        }
+    }
+
+    private void runCase(int first, int second) {
+        boolean skipUnchanged = injectIncrementally && injectorsUnchanged && cpuRunner.getLastInjectedBy() == this
+                && fixture == null && !hoistInvariantInjectors;
+        int changedOperands = ((first != this.first) ? FIRST_OPERAND : NO_OPERAND)
+                | ((second != this.second) ? SECOND_OPERAND : NO_OPERAND);
+
+        this.first = first;
+        this.second = second;
+        this.flagsOfLastRun = flagsBefore;
+        this.lastFailedVerifier = null;
+        this.injectorsUnchanged = false;
+        cpuRunner.setLastInjectedBy(this);
+
+        Plan<TCpuRunner, TOperand> plan = plan();
+        PhaseProfile.Recorder recorder = null;
+        long time = 0;
+        if (profile != null) {
+            if (plan.recorder == null) {
+                plan.recorder = profile.newRecorder(plan.instruction);
+            }
+            recorder = plan.recorder;
+            time = System.nanoTime();
+        }
+
+        if (hoistInvariantInjectors) {
+            cpuRunner.restore(hoistedFixture());
+        } else if (fixture != null) {
+            cpuRunner.restore(fixture);
+        } else {
+            cpuRunner.reset();
+        }
 
         // first preserve flags; they may get overwritten by some injector
-        if (flagsBefore != -1) {
+        if (flagsBefore != -1 && !(hoistInvariantInjectors && hoistedInjectorsSetFlags)) {
             cpuRunner.setFlags(flagsBefore);
         }
+        if (recorder != null) {
+            time = recorder.record(PhaseProfile.Phase.RESET, time);
+        }
 
-        injectors.forEach(injector -> injector.inject(cpuRunner, first, second));
+        for (Injector<TCpuRunner, TOperand> injector : plan.injectors) {
+            if (hoistInvariantInjectors && injector.operands == NO_OPERAND) {
+                continue;
+            }
+            if (!skipUnchanged || !injector.persistent || (injector.operands & changedOperands) != 0) {
+                inject(injector);
+            }
+        }
 
-        RunnerContext<TOperand> context = new RunnerContext<>(
-                first, second, cpuRunner.getFlags(), cpuRunner.getPC(), cpuRunner.getSP(), cpuRunner.getRegisters()
-        );
+        RunnerContext<TOperand> context = captureContext();
+        if (recorder != null) {
+            time = recorder.record(PhaseProfile.Phase.INJECT, time);
+        }
 
         cpuRunner.step();
+        if (recorder != null) {
+            time = recorder.record(PhaseProfile.Phase.STEP, time);
+        }
         flagsBefore = cpuRunner.getFlags();
 
-        verify(context);
+        verify(plan, context);
+        injectorsUnchanged = true;
+        if (recorder != null) {
+            recorder.record(PhaseProfile.Phase.VERIFY, time);
+        }
+    }
+
+    /**
+     * Capture CPU state before test execution, into the reused context (see reuseContext()) or a new one.
+     *
+     * @return context of the test case
+     */
+    private RunnerContext<TOperand> captureContext() {
+        if (reuseContext) {
+            reusedContext.fill(operandType, boxedFirst, boxedSecond, first, second, cpuRunner.getFlags(),
+                    cpuRunner.getPC(), cpuRunner.getSP());
+            reusedContext.setRegisterValues(cpuRunner.getRegisters(reusedContext.getRegisterValues()));
+            return reusedContext;
+        }
+        registerValues = cpuRunner.getRegisters(registerValues);
+        return new RunnerContext<>(boxedFirst(), boxedSecond(), first, second, cpuRunner.getFlags(),
+                cpuRunner.getPC(), cpuRunner.getSP(), registerValues.clone());
+    }
+
+    private Plan<TCpuRunner, TOperand> plan() {
+        if (plan == null) {
+            plan = new Plan<>(injectors, verifiers);
+        }
+        return plan;
+    }
+
+    private void inject(Injector<TCpuRunner, TOperand> injector) {
+        if (printInjectingProcess) {
+            printInjection(injector);
+        }
+        injector.body.inject(this);
+    }
+
+    /**
+     * Execute test cases in batches.
+     *
+     * Instructions of many test cases (each with its own operands) are laid out one after another in a single memory
+     * image, which is set up only once. Then, the CPU steps through the whole batch without reset. Before each step,
+     * all other injectors (e.g. of registers) are run for the test case, and after the step all verifiers are run,
+     * as in accept().
+     *
+     * Batches are used only if exactly one injector writes the program, and it does not write memory. Test cases are
+     * executed one by one if it is not the case, if the instruction changes control flow (PC does not point to the
+     * next instruction in the batch), or if an injector overwrites the batch.
+     *
+     * NOTE: CPU is not reset between test cases in a batch, so all registers read by the instruction must be injected.
+     * The tested instruction must not write memory below address 0xFF00.
+     *
+     * @param operandPairs packed operand pairs (see OperandPair)
+     * @param from index of the first test case
+     * @param to index after the last test case
+     * @throws IllegalStateException if operand type is not known
+     */
+    public void runBatch(long[] operandPairs, int from, int to) {
+        if (operandType == null) {
+            throw new IllegalStateException("Operand type is not known. Use TestRunner(cpuRunner, operandType)");
+        }
+        try {
+            int index = from;
+            while (index < to) {
+                int end = layOutBatch(operandPairs, index, to);
+                int stop = (end > index) ? executeBatch(operandPairs, index, end) : index;
+                if (end > index && stop == end) {
+                    index = end;
+                } else {
+                    if (end > index) {
+                        // the instruction changes control flow or injectors overwrite the batch; it would happen again
+                        batchWriter = NOT_BATCHABLE;
+                    }
+                    setOperands(operandPairs[stop]);
+                    run(first, second);
+                    index = stop + 1;
+                }
+            }
+        } catch (Throwable e) {
+            lastFailure = e;
+            throw e;
+        }
+    }
+
+    private void setOperands(long operandPair) {
+        this.first = OperandPair.first(operandPair);
+        this.second = OperandPair.second(operandPair);
+        this.boxedFirst = null;
+        this.boxedSecond = null;
+    }
+
+    /**
+     * Find the only injector which writes the program.
+     *
+     * @param operandPair operands used for finding the injector
+     * @return index of the injector, or NOT_BATCHABLE
+     */
+    private int findBatchWriter(long operandPair) {
+        boolean wasQuiet = quiet;
+        quiet = true;
+        cpuRunner.beginBatch();
+        try {
+            setOperands(operandPair);
+            int writer = NOT_BATCHABLE;
+            Injector<TCpuRunner, TOperand>[] injectors = plan().injectors;
+            for (int i = 0; i < injectors.length; i++) {
+                int programWrites = cpuRunner.getProgramWrites();
+                int memoryWrites = cpuRunner.getMemoryWrites();
+                injectors[i].body.inject(this);
+                if (cpuRunner.getProgramWrites() != programWrites) {
+                    if (writer != NOT_BATCHABLE || cpuRunner.getProgramWrites() != programWrites + 1
+                            || cpuRunner.getMemoryWrites() != memoryWrites) {
+                        return NOT_BATCHABLE;
+                    }
+                    writer = i;
+                }
+            }
+            return writer;
+        } finally {
+            cpuRunner.endBatch();
+            quiet = wasQuiet;
+        }
+    }
+
+    /**
+     * Lay out instructions of test cases one after another, until the batch is full.
+     *
+     * @return index after the last laid out test case
+     */
+    private int layOutBatch(long[] operandPairs, int from, int to) {
+        if (batchWriter == BATCH_WRITER_UNKNOWN) {
+            batchWriter = findBatchWriter(operandPairs[from]);
+        }
+        if (batchWriter == NOT_BATCHABLE || fixture != null || hoistInvariantInjectors || profile != null) {
+            return from;
+        }
+        if (batchOrigins.length < to - from) {
+            batchOrigins = new int[to - from];
+        }
+        Injector<TCpuRunner, TOperand> writer = plan().injectors[batchWriter];
+
+        cpuRunner.beginBatch();
+        cpuRunner.setLastInjectedBy(null);
+        injectorsUnchanged = false;
+        int origin = 0;
+        int index = from;
+        try {
+            while (index < to && origin < MAX_BATCH_END) {
+                setOperands(operandPairs[index]);
+                int programWrites = cpuRunner.getProgramWrites();
+                int memoryWrites = cpuRunner.getMemoryWrites();
+                cpuRunner.setProgramOrigin(origin);
+                writer.body.inject(this);
+                if (cpuRunner.getProgramWrites() != programWrites + 1 || cpuRunner.getMemoryWrites() != memoryWrites) {
+                    break;
+                }
+                batchOrigins[index - from] = origin;
+                origin = cpuRunner.getProgramEnd();
+                index++;
+            }
+        } catch (Throwable e) {
+            cpuRunner.endBatch();
+            throw e;
+        }
+        if (index == from) {
+            cpuRunner.endBatch();
+        }
+        batchEnd = origin;
+        return index;
+    }
+
+    /**
+     * Execute laid out batch.
+     *
+     * @return index after the last executed test case
+     */
+    private int executeBatch(long[] operandPairs, int from, int to) {
+        Plan<TCpuRunner, TOperand> plan = plan();
+        cpuRunner.executeBatch(batchEnd);
+        try {
+            cpuRunner.reset();
+            for (int index = from; index < to; index++) {
+                if (cpuRunner.getPC() != batchOrigins[index - from]) {
+                    return index;
+                }
+                setOperands(operandPairs[index]);
+                this.flagsOfLastRun = flagsBefore;
+                this.lastFailedVerifier = null;
+
+                if (flagsBefore != -1) {
+                    cpuRunner.setFlags(flagsBefore);
+                }
+                int batchOverwrites = cpuRunner.getBatchOverwrites();
+                for (int i = 0; i < plan.injectors.length; i++) {
+                    if (i != batchWriter) {
+                        inject(plan.injectors[i]);
+                    }
+                }
+                if (cpuRunner.getBatchOverwrites() != batchOverwrites) {
+                    return index;
+                }
+
+                RunnerContext<TOperand> context = captureContext();
+
+                cpuRunner.step();
+                flagsBefore = cpuRunner.getFlags();
+
+                verify(plan, context);
+            }
+            return to;
+        } finally {
+            cpuRunner.endBatch();
+        }
+    }
+
+    private CpuRunner.Snapshot hoistedFixture() {
+        if (hoistedFixture == null) {
+            // injectors set flags if they overwrite different initial flags in the same way
+            hoistedInjectorsSetFlags = runHoistedInjectors(0) == runHoistedInjectors(0xFF);
+
+            resetForHoisting();
+            for (Injector<TCpuRunner, TOperand> injector : plan().injectors) {
+                if (injector.operands == NO_OPERAND) {
+                    inject(injector);
+                }
+            }
+            hoistedFixture = cpuRunner.snapshot();
+        }
+        return hoistedFixture;
+    }
+
+    /**
+     * Run operand-independent injectors with given initial flags.
+     *
+     * @return flags after the injectors
+     */
+    private int runHoistedInjectors(int initialFlags) {
+        resetForHoisting();
+        cpuRunner.setFlags(initialFlags);
+        for (Injector<TCpuRunner, TOperand> injector : plan().injectors) {
+            if (injector.operands == NO_OPERAND) {
+                injector.body.inject(this);
+            }
+        }
+        return cpuRunner.getFlags();
+    }
+
+    private void resetForHoisting() {
+        if (fixture != null) {
+            cpuRunner.restore(fixture);
+        } else {
+            cpuRunner.reset();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TOperand boxedFirst() {
+        if (boxedFirst == null) {
+            boxedFirst = (TOperand) operandType.box(first);
+        }
+        return boxedFirst;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TOperand boxedSecond() {
+        if (boxedSecond == null) {
+            boxedSecond = (TOperand) operandType.box(second);
+        }
+        return boxedSecond;
+    }
+
+    List<Consumer<RunnerContext<TOperand>>> getVerifiers() {
+        return Collections.unmodifiableList(verifiers);
+    }
+
+    int getLastFirst() {
+        return first;
+    }
+
+    int getLastSecond() {
+        return second;
+    }
+
+    int getFlagsOfLastRun() {
+        return flagsOfLastRun;
+    }
+
+    /**
+     * Get failure thrown by the last failed test case.
+     *
+     * @return failure, or null if no test case has thrown yet
+     */
+    Throwable getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Get verifier which has thrown in the last test case, in the form of FailureReport keys
+     * (e.g. "instruction: [80][][], verifier #1 (FlagsVerifier)").
+     *
+     * @return verifier key, or null if no verifier has thrown (e.g. the test case passed, or an injector failed)
+     */
+    String getLastFailedVerifier() {
+        return lastFailedVerifier;
+    }
+
+    /**
+     * Re-execute a test case, e.g. when shrinking failed operands.
+     *
+     * @param first first operand (unsigned)
+     * @param second second operand (unsigned)
+     * @param flags flags set before the test (or -1 if they should not be set)
+     * @param quiet if true, nothing is printed
+     * @return failure of the test case, or null if it passed
+     */
+    Throwable rerun(int first, int second, int flags, boolean quiet) {
+        boolean wasQuiet = this.quiet;
+        FailureReport report = this.failureReport;
+        this.quiet = quiet;
+        this.failureReport = null; // re-executions are not recorded, and their failures are thrown
+        this.flagsBefore = flags;
+        this.boxedFirst = null;
+        this.boxedSecond = null;
+        this.injectorsUnchanged = false;
+        try {
+            run(first, second);
+            return null;
+        } catch (Throwable e) {
+            return e;
+        } finally {
+            this.quiet = wasQuiet;
+            this.failureReport = report;
+        }
+    }
+
+    /**
+     * Set operand type, if it is not known yet.
+     *
+     * @param operandType operand type
+     * @return this
+     * @throws IllegalArgumentException if the runner already uses another operand type
+     */
+    TestRunner<TCpuRunner, TOperand> operandType(OperandType operandType) {
+        if (this.operandType != null && this.operandType != operandType) {
+            throw new IllegalArgumentException(
+                    "Operand type is " + this.operandType + ", but generator provides " + operandType
+            );
+        }
+        this.operandType = operandType;
+        return this;
     }
 
     @Override
     public TestRunner<TCpuRunner, TOperand> clone() {
         TestRunner<TCpuRunner, TOperand> runner = new TestRunner<>(cpuRunner);
         runner.flagsBefore = flagsBefore;
+        runner.operandType = operandType;
+        runner.commutative = commutative;
+        runner.injectIncrementally = injectIncrementally;
+        runner.fixture = fixture;
+        runner.hoistInvariantInjectors = hoistInvariantInjectors;
+        runner.failureReport = failureReport;
+        runner.profile = profile;
+        runner.reuseContext = reuseContext;
 
         runner.injectors.addAll(this.injectors);
         runner.injectorsToKeep.addAll(this.injectorsToKeep);
@@ -275,4 +1037,32 @@ public class TestRunner<TCpuRunner extends CpuRunner<?>, TOperand extends Number
         return runner;
     }
 
+    /**
+     * Get description of the tested instruction (see InstructionInjector).
+     *
+     * The plan is not compiled for it; the description is built from current injectors if the plan is not compiled.
+     *
+     * @return instruction description
+     */
+    String instruction() {
+        Plan<TCpuRunner, TOperand> plan = this.plan;
+        return (plan == null) ? describeInstruction(injectors) : plan.instruction;
+    }
+
+    private static String describeInstruction(List<? extends Injector<?, ?>> injectors) {
+        StringJoiner instruction = new StringJoiner(", ");
+        instruction.setEmptyValue("unknown instruction");
+        for (Injector<?, ?> injector : injectors) {
+            if (injector.target instanceof NoOperInstr || injector.target instanceof OneOperInstr
+                    || injector.target instanceof TwoOperInstr) {
+                instruction.add(injector.target.toString());
+            }
+        }
+        return instruction.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "TestRunner{" + instruction() + "}";
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Specification of a test, separated from its execution environment.
+ *
+ * The specification only describes how test runners are built from a test builder (which operands are injected,
+ * what is verified, which instruction is run). It must not keep any state, nor capture a CPU, CpuRunner or
+ * CpuVerifier; everything it needs is taken from the given test builder. Therefore, one specification can be
+ * applied to more test builders, each bound to its own CPU, and run on more threads at once (see TestPool).
+ *
+ * @param <TTestBuilder> type of the test builder
+ * @param <TOperand> operands type (Byte, Integer or Long)
+ */
+@FunctionalInterface
+public interface TestSpec<TTestBuilder extends TestBuilder<TOperand, ?, ?, ?>, TOperand extends Number> {
+
+    /**
+     * Build test runners using given test builder.
+     *
+     * The test builder should be left as it was before the call, i.e. the specification should not keep injectors
+     * or verifiers after run (e.g. keepCurrentInjectorsAfterRun()), because the builder is reused.
+     *
+     * @param test test builder, owned by the calling thread
+     * @return test runners (e.g. created by TestBuilder.run())
+     */
+    List<? extends BiConsumer<TOperand, TOperand>> define(TTestBuilder test);
+}
@@ -19,16 +19,20 @@
 package net.emustudio.cpu.testsuite.injectors;
 
 import net.emustudio.cpu.testsuite.CpuRunner;
+import net.emustudio.cpu.testsuite.injectors.internal.Utils;
 
 import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Injector of specific value at injected memory address.
  *
  * Used for placing given value at memory address injected by TestRunner.
- * Based on the used constructor, it places either Byte or Integer at the injected address.
+ * Based on the used constructor, it places either Byte or Integer at the injected address. Words are written using
+ * the word reading strategy of the memory.
  */
-public class MemoryAddress<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand> {
+public class MemoryAddress<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand>,
+        ObjIntConsumer<TCpuRunner>, PersistentInjector {
     private final int value;
     private final boolean word;
 
@@ -54,11 +58,15 @@ public class MemoryAddress<TCpuRunner extends CpuRunner<?>, TOperand extends Num
 
     @Override
     public void accept(TCpuRunner cpuRunner, TOperand address) {
-        int tmp = address.intValue();
+        accept(cpuRunner, address.intValue());
+    }
 
-        cpuRunner.setByte(tmp, value & 0xFF);
+    @Override
+    public void accept(TCpuRunner cpuRunner, int address) {
         if (word) {
-            cpuRunner.setByte(tmp + 1, (value >>> 8) & 0xFF);
+            Utils.setBytes(cpuRunner, address, value, 2);
+        } else {
+            cpuRunner.setByte(address, value);
         }
     }
 
@@ -21,6 +21,7 @@ package net.emustudio.cpu.testsuite.injectors;
 import net.emustudio.cpu.testsuite.CpuRunner;
 
 import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Injector of a byte value at specified memory address.
@@ -28,7 +29,8 @@ import java.util.function.BiConsumer;
  * Given memory address, test runner will inject a 8-bit value there.
  * Higher than 8-bit value will be truncated.
  */
-public class MemoryByte<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand> {
+public class MemoryByte<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand>,
+        ObjIntConsumer<TCpuRunner>, PersistentInjector {
     private final int address;
 
     /**
@@ -49,6 +51,11 @@ public class MemoryByte<TCpuRunner extends CpuRunner<?>, TOperand extends Number
         cpuRunner.setByte(address, value.byteValue());
     }
 
+    @Override
+    public void accept(TCpuRunner cpuRunner, int value) {
+        cpuRunner.setByte(address, value);
+    }
+
     @Override
     public String toString() {
         return String.format("memoryByte[%04x]", address);
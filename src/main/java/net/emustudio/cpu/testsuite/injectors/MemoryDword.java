@@ -0,0 +1,66 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.injectors;
+
+import net.emustudio.cpu.testsuite.CpuRunner;
+import net.emustudio.cpu.testsuite.injectors.internal.Utils;
+
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Injector of a 32-bit (4 bytes) value at specified memory address.
+ *
+ * Given memory address, test runner will inject a 32-bit value there.
+ * Byte order is given by word reading strategy of the memory.
+ *
+ */
+public class MemoryDword<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand>,
+        ObjIntConsumer<TCpuRunner>, PersistentInjector {
+    private final int address;
+
+    /**
+     * Creates a 32-bit memory value injector.
+     *
+     * @param address address at which the test runner will inject a value
+     */
+    public MemoryDword(int address) {
+        if (address <= 0) {
+            throw new IllegalArgumentException("Address can be only > 0!");
+        }
+
+        this.address = address;
+    }
+
+    @Override
+    public void accept(TCpuRunner cpuRunner, TOperand value) {
+        accept(cpuRunner, value.intValue());
+    }
+
+    @Override
+    public void accept(TCpuRunner cpuRunner, int value) {
+        Utils.setBytes(cpuRunner, address, value, 4);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("memoryDword[%04x]", address);
+    }
+
+}
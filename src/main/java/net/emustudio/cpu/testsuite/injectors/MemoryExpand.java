@@ -21,6 +21,7 @@ package net.emustudio.cpu.testsuite.injectors;
 import net.emustudio.cpu.testsuite.CpuRunner;
 
 import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Program memory expander.
@@ -31,10 +32,16 @@ import java.util.function.BiConsumer;
  *
  */
 @SuppressWarnings("unused")
-public class MemoryExpand<TCpuRunner extends CpuRunner<?>> implements BiConsumer<TCpuRunner, Integer> {
+public class MemoryExpand<TCpuRunner extends CpuRunner<?>> implements BiConsumer<TCpuRunner, Integer>,
+        ObjIntConsumer<TCpuRunner>, PersistentInjector {
 
     @Override
     public void accept(TCpuRunner cpuRunner, Integer address) {
+        accept(cpuRunner, address.intValue());
+    }
+
+    @Override
+    public void accept(TCpuRunner cpuRunner, int address) {
         cpuRunner.ensureProgramSize(address + 4);
     }
 
@@ -19,17 +19,20 @@
 package net.emustudio.cpu.testsuite.injectors;
 
 import net.emustudio.cpu.testsuite.CpuRunner;
+import net.emustudio.cpu.testsuite.injectors.internal.Utils;
 
 import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Injector of a integer (2 bytes) value at specified memory address.
  *
  * Given memory address, test runner will inject a 16-bit value there.
- * Higher than 16-bit value will be truncated.
+ * Higher than 16-bit value will be truncated. Byte order is given by word reading strategy of the memory.
  *
  */
-public class MemoryWord<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand> {
+public class MemoryWord<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand>,
+        ObjIntConsumer<TCpuRunner>, PersistentInjector {
     private final int address;
 
     /**
@@ -47,9 +50,12 @@ public class MemoryWord<TCpuRunner extends CpuRunner<?>, TOperand extends Number
 
     @Override
     public void accept(TCpuRunner cpuRunner, TOperand value) {
-        int tmp = value.intValue();
-        cpuRunner.setByte(address, tmp & 0xFF);
-        cpuRunner.setByte(address + 1, (tmp >>> 8) & 0xFF);
+        accept(cpuRunner, value.intValue());
+    }
+
+    @Override
+    public void accept(TCpuRunner cpuRunner, int value) {
+        Utils.setBytes(cpuRunner, address, value, 2);
     }
 
     @Override
@@ -30,7 +30,7 @@ import java.util.function.Consumer;
  *
  * Can have 1 or more opcodes.
  */
-public class NoOperInstr<TCpuRunner extends CpuRunner<?>> implements Consumer<TCpuRunner> {
+public class NoOperInstr<TCpuRunner extends CpuRunner<?>> implements Consumer<TCpuRunner>, PersistentInjector {
     private final DefaultProgramGenerator<?> strategy = new DefaultProgramGenerator<>();
 
     /**
@@ -44,8 +44,7 @@ public class NoOperInstr<TCpuRunner extends CpuRunner<?>> implements Consumer<TC
 
     @Override
     public void accept(TCpuRunner cpuRunner) {
-        cpuRunner.setProgram(strategy.generate());
-        strategy.clearOperands();
+        cpuRunner.setProgram(strategy.generateProgram());
     }
 
     @Override
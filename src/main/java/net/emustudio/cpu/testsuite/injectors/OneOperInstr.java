@@ -19,6 +19,7 @@
 package net.emustudio.cpu.testsuite.injectors;
 
 import net.emustudio.cpu.testsuite.CpuRunner;
+import net.emustudio.cpu.testsuite.OperandType;
 import net.emustudio.cpu.testsuite.injectors.internal.DefaultProgramGenerator;
 
 import java.util.function.BiConsumer;
@@ -35,9 +36,10 @@ import java.util.function.BiConsumer;
  * 3. Possibly more opcodes (0 or more)
  *
  * @param <TCpuRunner> type of the CpuRunner
- * @param <TOperand> type of operand (Byte or Integer)
+ * @param <TOperand> type of operand (Byte, Integer or Long)
  */
-public class OneOperInstr<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand> {
+public class OneOperInstr<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements BiConsumer<TCpuRunner, TOperand>,
+        PersistentInjector {
 
     private final DefaultProgramGenerator<TOperand> strategy = new DefaultProgramGenerator<>();
 
@@ -53,7 +55,7 @@ public class OneOperInstr<TCpuRunner extends CpuRunner<?>, TOperand extends Numb
     /**
      * Inserts opcodes after operand.
      *
-     * NOTE: size of operands is given by OperandType parameter (Byte = 8 bits, Integer = 16 bits)
+     * NOTE: size of operands is given by OperandType parameter (Byte = 8 bits, Integer = 16 bits, Long = 32 bits)
      *
      * @param opcodes opcode(s). Each opcode must be a byte (don't get confused by int).
      * @return this
@@ -67,12 +69,26 @@ public class OneOperInstr<TCpuRunner extends CpuRunner<?>, TOperand extends Numb
     public void accept(TCpuRunner cpuRunner, TOperand operand) {
         strategy.setOperands(operand);
 
-        cpuRunner.setProgram(strategy.generate());
+        cpuRunner.setProgram(strategy.generate(cpuRunner.getWordReadingStrategy()));
         cpuRunner.ensureProgramSize(operand.intValue() & 0xFFFF + 2);
 
         strategy.clearOperands();
     }
 
+    /**
+     * Inject the instruction with a primitive operand, without boxing it.
+     *
+     * The program is written into CpuRunner directly, so the injection does not allocate.
+     *
+     * @param cpuRunner CPU runner
+     * @param operand operand (unsigned)
+     * @param operandType type of the operand
+     */
+    public void accept(TCpuRunner cpuRunner, int operand, OperandType operandType) {
+        cpuRunner.setProgram(strategy.generateProgram(cpuRunner.getWordReadingStrategy(), operandType, operand));
+        cpuRunner.ensureProgramSize((operand & 0xFFFF) + 2);
+    }
+
     @Override
     public String toString() {
         return strategy.toString();
@@ -0,0 +1,29 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.injectors;
+
+/**
+ * Marker of an injector whose effect survives CpuRunner.reset().
+ *
+ * Such injector writes only the program or memory, and its effect depends only on the injected operands. When a
+ * test runner injects incrementally (see TestRunner.injectIncrementally()), the injector is skipped if its operands
+ * did not change since the previous test case.
+ */
+public interface PersistentInjector {
+}
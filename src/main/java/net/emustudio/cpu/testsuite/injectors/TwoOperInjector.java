@@ -24,7 +24,7 @@ import net.emustudio.cpu.testsuite.CpuRunner;
  * Injector used with two operands (standard Java does not have 3-argument consumer).
  *
  * @param <TCpuRunner> CpuRunner type
- * @param <TOperand> type of operands (Byte or Integer). Both are of the same type.
+ * @param <TOperand> type of operands (Byte, Integer or Long). Both are of the same type.
  */
 @FunctionalInterface
 public interface TwoOperInjector<TCpuRunner extends CpuRunner<?>, TOperand extends Number> {
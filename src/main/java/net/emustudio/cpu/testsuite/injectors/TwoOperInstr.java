@@ -19,6 +19,7 @@
 package net.emustudio.cpu.testsuite.injectors;
 
 import net.emustudio.cpu.testsuite.CpuRunner;
+import net.emustudio.cpu.testsuite.OperandType;
 import net.emustudio.cpu.testsuite.injectors.internal.DefaultProgramGenerator;
 
 /**
@@ -34,9 +35,10 @@ import net.emustudio.cpu.testsuite.injectors.internal.DefaultProgramGenerator;
  * 4. Possibly more opcodes (0 or more)
  *
  * @param <TCpuRunner> type of CpuRunner
- * @param <TOperand> type of the operand (Byte or Integer)
+ * @param <TOperand> type of the operand (Byte, Integer or Long)
  */
-public class TwoOperInstr<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements TwoOperInjector<TCpuRunner, TOperand> {
+public class TwoOperInstr<TCpuRunner extends CpuRunner<?>, TOperand extends Number> implements TwoOperInjector<TCpuRunner, TOperand>,
+        PersistentInjector {
     private final DefaultProgramGenerator<TOperand> strategy = new DefaultProgramGenerator<>();
 
     /**
@@ -51,7 +53,7 @@ public class TwoOperInstr<TCpuRunner extends CpuRunner<?>, TOperand extends Numb
     /**
      * Will place more opcodes after the instruction operands.
      *
-     * NOTE: size of operands is given by OperandType parameter (Byte = 8 bits, Integer = 16 bits)
+     * NOTE: size of operands is given by OperandType parameter (Byte = 8 bits, Integer = 16 bits, Long = 32 bits)
      *
      * @param opcodes opcode(s). Each opcode must be a byte (don't get confused by int).
      * @return this
@@ -68,12 +70,27 @@ public class TwoOperInstr<TCpuRunner extends CpuRunner<?>, TOperand extends Numb
         int tmpFirst = first.intValue() & 0xFFFF;
         int tmpSecond = second.intValue() & 0xFFFF;
 
-        cpuRunner.setProgram(strategy.generate());
+        cpuRunner.setProgram(strategy.generate(cpuRunner.getWordReadingStrategy()));
         cpuRunner.ensureProgramSize(Math.max(tmpFirst + 2, tmpSecond + 2));
 
         strategy.clearOperands();
     }
 
+    /**
+     * Inject the instruction with primitive operands, without boxing them.
+     *
+     * The program is written into CpuRunner directly, so the injection does not allocate.
+     *
+     * @param cpuRunner CPU runner
+     * @param first first operand (unsigned)
+     * @param second second operand (unsigned)
+     * @param operandType type of the operands
+     */
+    public void inject(TCpuRunner cpuRunner, int first, int second, OperandType operandType) {
+        cpuRunner.setProgram(strategy.generateProgram(cpuRunner.getWordReadingStrategy(), operandType, first, second));
+        cpuRunner.ensureProgramSize(Math.max((first & 0xFFFF) + 2, (second & 0xFFFF) + 2));
+    }
+
     @Override
     public String toString() {
         return strategy.toString();
@@ -18,17 +18,23 @@
  */
 package net.emustudio.cpu.testsuite.injectors.internal;
 
+import net.emustudio.cpu.testsuite.OperandType;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 public class DefaultProgramGenerator<TOperand extends Number> {
-    private final List<Short> opcodes = new ArrayList<>();
+    private short[] opcodes = new short[0];
     private final List<TOperand> operands  = new ArrayList<>();
-    private final List<Short> opcodesAfterOperand = new ArrayList<>();
+    private short[] opcodesAfterOperand = new short[0];
+
+    // reused by generateProgram()
+    private short[] program = new short[0];
 
     public void addOpcodes(int... opcodes) {
-        this.opcodes.addAll(intArrayToList(opcodes));
+        this.opcodes = append(this.opcodes, opcodes);
     }
 
     @SafeVarargs
@@ -37,35 +43,124 @@ public class DefaultProgramGenerator<TOperand extends Number> {
     }
 
     public void addOpcodesAfterOperands(int... opcodes) {
-        this.opcodesAfterOperand.addAll(intArrayToList(opcodes));
+        this.opcodesAfterOperand = append(this.opcodesAfterOperand, opcodes);
     }
 
-    private static List<Short> intArrayToList(int... things) {
-        List<Short> tmpList = new ArrayList<>();
-        for (int thing : things) {
-            tmpList.add((short)thing);
+    private static short[] append(short[] array, int... things) {
+        short[] result = Arrays.copyOf(array, array.length + things.length);
+        for (int i = 0; i < things.length; i++) {
+            result[array.length + i] = (short)things[i];
         }
-        return tmpList;
+        return result;
     }
 
     public List<Short> generate() {
+        return generate(NumberUtils.Strategy.LITTLE_ENDIAN);
+    }
+
+    public List<Short> generate(int wordReadingStrategy) {
+        boolean bigEndian = (wordReadingStrategy & NumberUtils.Strategy.BIG_ENDIAN) != 0;
 
-        List<Short> program = new ArrayList<>(opcodes);
+        List<Short> program = new ArrayList<>();
+        addAll(program, opcodes);
         for (TOperand operand : operands) {
             if (operand instanceof Byte) {
                 program.add((short)(operand.byteValue() & 0xFF));
             } else if (operand instanceof Integer) {
-                program.add((short)(operand.shortValue() & 0xFF));
-                program.add((short)((operand.shortValue() >>> 8) & 0xFF));
+                addBytes(program, operand.intValue(), 2, bigEndian);
+            } else if (operand instanceof Long) {
+                addBytes(program, (int) operand.longValue(), 4, bigEndian);
             } else {
-                throw new IllegalStateException("Operand type can be either Byte or Integer");
+                throw new IllegalStateException("Operand type can be Byte, Integer or Long");
             }
         }
-        program.addAll(opcodesAfterOperand);
+        addAll(program, opcodesAfterOperand);
 
         return program;
     }
 
+    private static void addAll(List<Short> program, short[] opcodes) {
+        for (short opcode : opcodes) {
+            program.add(opcode);
+        }
+    }
+
+    private static void addBytes(List<Short> program, int value, int count, boolean bigEndian) {
+        for (int i = 0; i < count; i++) {
+            int shift = 8 * (bigEndian ? count - 1 - i : i);
+            program.add((short)((value >>> shift) & 0xFF));
+        }
+    }
+
+    /**
+     * Generate program without operands.
+     *
+     * The returned array is reused by the next call of generateProgram(), so the caller must copy it.
+     *
+     * @return program
+     */
+    public short[] generateProgram() {
+        return generateProgram(0, NumberUtils.Strategy.LITTLE_ENDIAN, OperandType.BYTE, 0, 0);
+    }
+
+    /**
+     * Generate program with a single primitive operand, without boxing it.
+     *
+     * The returned array is reused by the next call of generateProgram(), so the caller must copy it.
+     *
+     * @param wordReadingStrategy word reading strategy (see NumberUtils.Strategy)
+     * @param operandType type of the operand
+     * @param operand operand (unsigned)
+     * @return program
+     */
+    public short[] generateProgram(int wordReadingStrategy, OperandType operandType, int operand) {
+        return generateProgram(1, wordReadingStrategy, operandType, operand, 0);
+    }
+
+    /**
+     * Generate program with two primitive operands, without boxing them.
+     *
+     * The returned array is reused by the next call of generateProgram(), so the caller must copy it.
+     *
+     * @param wordReadingStrategy word reading strategy (see NumberUtils.Strategy)
+     * @param operandType type of the operands
+     * @param first first operand (unsigned)
+     * @param second second operand (unsigned)
+     * @return program
+     */
+    public short[] generateProgram(int wordReadingStrategy, OperandType operandType, int first, int second) {
+        return generateProgram(2, wordReadingStrategy, operandType, first, second);
+    }
+
+    private short[] generateProgram(int operandCount, int wordReadingStrategy, OperandType operandType,
+                                    int first, int second) {
+        boolean bigEndian = (wordReadingStrategy & NumberUtils.Strategy.BIG_ENDIAN) != 0;
+        int operandBytes = Integer.bitCount(operandType.mask()) / 8;
+
+        int length = opcodes.length + operandCount * operandBytes + opcodesAfterOperand.length;
+        if (program.length != length) {
+            program = new short[length];
+        }
+        System.arraycopy(opcodes, 0, program, 0, opcodes.length);
+        int index = opcodes.length;
+        if (operandCount > 0) {
+            index = setBytes(index, first, operandBytes, bigEndian);
+        }
+        if (operandCount > 1) {
+            index = setBytes(index, second, operandBytes, bigEndian);
+        }
+        System.arraycopy(opcodesAfterOperand, 0, program, index, opcodesAfterOperand.length);
+        return program;
+    }
+
+    private int setBytes(int index, int value, int count, boolean bigEndian) {
+        for (int i = 0; i < count; i++) {
+            int shift = 8 * (bigEndian ? count - 1 - i : i);
+            program[index + i] = (short)((value >>> shift) & 0xFF);
+        }
+        return index + count;
+    }
+
     public void clearOperands() {
         operands.clear();
     }
@@ -73,8 +168,16 @@ public class DefaultProgramGenerator<TOperand extends Number> {
     @Override
     public String toString() {
         return String.format("instruction: %s%s%s",
-            Utils.toHexString(opcodes.toArray()),
+            Utils.toHexString(boxAll(opcodes)),
             Utils.toHexString(operands.toArray()),
-            Utils.toHexString(opcodesAfterOperand.toArray()));
+            Utils.toHexString(boxAll(opcodesAfterOperand)));
+    }
+
+    private static Short[] boxAll(short[] opcodes) {
+        Short[] result = new Short[opcodes.length];
+        for (int i = 0; i < opcodes.length; i++) {
+            result[i] = opcodes[i];
+        }
+        return result;
     }
 }
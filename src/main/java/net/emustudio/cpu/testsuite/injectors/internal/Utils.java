@@ -18,6 +18,9 @@
  */
 package net.emustudio.cpu.testsuite.injectors.internal;
 
+import net.emustudio.cpu.testsuite.CpuRunner;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+
 import java.util.Arrays;
 
 /**
@@ -35,4 +38,20 @@ public class Utils {
         }
         return Arrays.toString(result);
     }
+
+    /**
+     * Write multi-byte value into memory, using word reading strategy of the memory.
+     *
+     * @param cpuRunner CPU runner
+     * @param address memory address
+     * @param value value
+     * @param count number of bytes (2 or 4)
+     */
+    public static void setBytes(CpuRunner<?> cpuRunner, int address, int value, int count) {
+        boolean bigEndian = (cpuRunner.getWordReadingStrategy() & NumberUtils.Strategy.BIG_ENDIAN) != 0;
+        for (int i = 0; i < count; i++) {
+            int shift = 8 * (bigEndian ? count - 1 - i : i);
+            cpuRunner.setByte(address + i, (value >>> shift) & 0xFF);
+        }
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.internal;
+
+import net.emustudio.cpu.testsuite.RunnersFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * INTERNAL CLASS. DO NOT USE DIRECTLY.
+ *
+ * Runs a generator for each test runner separately, concurrently in a shared ForkJoin pool (see ParallelSweep).
+ * Each worker thread uses its own runners created by RunnersFactory (once per worker thread, as in ParallelSweep),
+ * and a task takes the runner with its index from them. So runners of concurrent tasks never share a CPU. The runners
+ * are released when run() ends. Tasks are independent; a failure does not cancel other tasks. All failures are
+ * aggregated per runner and thrown after all tasks complete.
+ *
+ * @param <TOperand> operands type (Byte, Integer or Long)
+ */
+public class FanOut<TOperand extends Number> {
+    private final RunnersFactory<TOperand> runnersFactory;
+    private final Map<Thread, List<? extends BiConsumer<TOperand, TOperand>>> workerRunners = new ConcurrentHashMap<>();
+    private final ObjIntConsumer<BiConsumer<TOperand, TOperand>[]> generator;
+
+    /**
+     * Creates new fan-out of a generator.
+     *
+     * @param runnersFactory factory of test runners
+     * @param generator generator, taking a single runner and its index
+     */
+    public FanOut(RunnersFactory<TOperand> runnersFactory, ObjIntConsumer<BiConsumer<TOperand, TOperand>[]> generator) {
+        this.runnersFactory = Objects.requireNonNull(runnersFactory);
+        this.generator = Objects.requireNonNull(generator);
+    }
+
+    /**
+     * Runs the generator for each runner created by the factory.
+     *
+     * @param parallelism number of worker threads
+     */
+    public void run(int parallelism) {
+        List<? extends BiConsumer<TOperand, TOperand>> runners = runnersFactory.createRunners();
+        List<Task> tasks = new ArrayList<>(runners.size());
+        for (int i = 0; i < runners.size(); i++) {
+            tasks.add(new Task(i, runners.size()));
+        }
+
+        try {
+            ParallelSweep.workers(parallelism).invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            workerRunners.clear(); // pool threads outlive the fan-out
+        }
+
+        List<Task> failed = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.failure != null) {
+                failed.add(task);
+            }
+        }
+        if (failed.isEmpty()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder()
+                .append(failed.size()).append(" of ").append(tasks.size()).append(" runners failed:");
+        for (Task task : failed) {
+            message.append("\n  runner #").append(task.index)
+                    .append(" (").append(runners.get(task.index)).append("): ")
+                    .append(task.failure.getMessage());
+        }
+        AssertionError error = new AssertionError(message.toString(), failed.get(0).failure);
+        for (Task task : failed.subList(1, failed.size())) {
+            error.addSuppressed(task.failure);
+        }
+        throw error;
+    }
+
+    private class Task extends RecursiveAction {
+        private final int index;
+        private final int count;
+        private Throwable failure;
+
+        private Task(int index, int count) {
+            this.index = index;
+            this.count = count;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            try {
+                List<? extends BiConsumer<TOperand, TOperand>> runners = workerRunners.computeIfAbsent(
+                        Thread.currentThread(), thread -> runnersFactory.createRunners()
+                );
+                if (runners.size() != count) {
+                    throw new IllegalStateException(
+                            "Runners factory created " + runners.size() + " runners, expected " + count
+                    );
+                }
+                generator.accept(new BiConsumer[]{runners.get(index)}, index);
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+    }
+}
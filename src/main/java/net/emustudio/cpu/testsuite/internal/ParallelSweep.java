@@ -0,0 +1,178 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.internal;
+
+import net.emustudio.cpu.testsuite.OperandPairConsumer;
+import net.emustudio.cpu.testsuite.OperandType;
+import net.emustudio.cpu.testsuite.RunnersFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * INTERNAL CLASS. DO NOT USE DIRECTLY.
+ *
+ * Splits range of first operands into shards and runs them in a ForkJoin pool. Each worker thread uses its own
+ * runners created by RunnersFactory, kept by the sweep (not by the thread) and released when the sweep ends. The
+ * first failure cancels all remaining shards and it is re-thrown to the caller.
+ *
+ * Pools are shared by all sweeps with the same parallelism, so worker threads (and their test environments, see
+ * TestPool) are reused by following sweeps. The pools are never shut down: worker threads are daemon threads, so
+ * they do not prevent the test JVM from exiting, and idle worker threads are terminated by the pool.
+ *
+ * @param <TOperand> operands type (Byte, Integer or Long)
+ */
+public class ParallelSweep<TOperand extends Number> {
+    private static final int SHARDS_PER_WORKER = 8;
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final OperandType operandType;
+    private final RunnersFactory<TOperand> runnersFactory;
+    private final Map<Thread, OperandPairConsumer[]> runners = new ConcurrentHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Sweep of all second operands for a single first operand.
+     */
+    @FunctionalInterface
+    public interface Row {
+        void sweep(OperandPairConsumer[] runners, int first);
+    }
+
+    public ParallelSweep(OperandType operandType, RunnersFactory<TOperand> runnersFactory) {
+        this.operandType = Objects.requireNonNull(operandType);
+        this.runnersFactory = Objects.requireNonNull(runnersFactory);
+    }
+
+    /**
+     * Get ForkJoin pool shared by all sweeps with given parallelism.
+     *
+     * @param parallelism number of worker threads
+     * @return shared pool
+     */
+    public static ForkJoinPool workers(int parallelism) {
+        return POOLS.computeIfAbsent(parallelism, key -> new ForkJoinPool(key, ParallelSweep::newWorker, null, false));
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setDaemon(true);
+        worker.setName("cpu-testsuite-worker-" + pool.getParallelism() + "-" + worker.getPoolIndex());
+        return worker;
+    }
+
+    /**
+     * Runs the sweep for all first operands in range [from, to).
+     *
+     * @param parallelism number of worker threads
+     * @param from first operand (inclusive)
+     * @param to last operand (exclusive)
+     * @param row sweep of a single row
+     */
+    public void run(int parallelism, int from, int to, Row row) {
+        run(parallelism, from, to, SweepCheckpoint.NONE, row);
+    }
+
+    /**
+     * Runs the sweep for all first operands in range [from, to), which were not completed in the checkpoint yet.
+     *
+     * @param parallelism number of worker threads
+     * @param from first operand (inclusive)
+     * @param to last operand (exclusive)
+     * @param checkpoint progress of the sweep
+     * @param row sweep of a single row
+     */
+    public void run(int parallelism, int from, int to, SweepCheckpoint checkpoint, Row row) {
+        Objects.requireNonNull(checkpoint);
+        if (from >= to) {
+            return;
+        }
+        int shardSize = Math.max(1, (to - from) / (parallelism * SHARDS_PER_WORKER));
+
+        try {
+            workers(parallelism).invoke(new Shard(from, to, shardSize, checkpoint, row));
+        } finally {
+            runners.clear(); // pool threads outlive the sweep
+        }
+
+        Throwable e = failure.get();
+        if (e == null) {
+            checkpoint.completed();
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e != null) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class Shard extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int shardSize;
+        private final SweepCheckpoint checkpoint;
+        private final Row row;
+
+        private Shard(int from, int to, int shardSize, SweepCheckpoint checkpoint, Row row) {
+            this.from = from;
+            this.to = to;
+            this.shardSize = shardSize;
+            this.checkpoint = checkpoint;
+            this.row = row;
+        }
+
+        @Override
+        protected void compute() {
+            if (failure.get() != null) {
+                return;
+            }
+            if (to - from > shardSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new Shard(from, middle, shardSize, checkpoint, row),
+                        new Shard(middle, to, shardSize, checkpoint, row)
+                );
+                return;
+            }
+
+            int i = from;
+            try {
+                OperandPairConsumer[] myRunners = runners.computeIfAbsent(Thread.currentThread(), thread ->
+                        OperandPairConsumer.of(operandType, runnersFactory.createRunners())
+                );
+                for (; i < to && failure.get() == null; i++) {
+                    if (!checkpoint.isDone(i)) {
+                        row.sweep(myRunners, i);
+                        checkpoint.rowDone(i);
+                    }
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                checkpoint.rowFailed(i, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.internal;
+
+import net.emustudio.cpu.testsuite.SeededRandom;
+import net.jcip.annotations.Immutable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * INTERNAL CLASS. DO NOT USE DIRECTLY.
+ *
+ * Index of 16-bit values satisfying a predicate. The predicate is evaluated only once for each value, and the index is
+ * cached per predicate instance (so the predicate must not have a state). Enumeration and uniform sampling of the
+ * satisfying values take constant time per value.
+ */
+@Immutable
+public final class SatisfyingValues {
+    private static final int MAX_16BIT_VALUE = 0xFFFF;
+    private static final Map<Predicate<Integer>, SatisfyingValues> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int[] values;
+
+    private SatisfyingValues(int[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Get index of 16-bit values satisfying the predicate.
+     *
+     * @param predicate predicate
+     * @return cached index
+     * @throws IllegalArgumentException if no 16-bit value satisfies the predicate
+     */
+    public static SatisfyingValues of16bit(Predicate<Integer> predicate) {
+        Objects.requireNonNull(predicate);
+        SatisfyingValues index = CACHE.get(predicate);
+        if (index == null) {
+            int[] values = IntStream.rangeClosed(0, MAX_16BIT_VALUE).filter(predicate::test).toArray();
+            if (values.length == 0) {
+                throw new IllegalArgumentException("No 16-bit value satisfies the predicate " + predicate);
+            }
+            index = new SatisfyingValues(values);
+            CACHE.put(predicate, index);
+        }
+        return index;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Pick a satisfying value uniformly.
+     *
+     * @param bits random bits; only the upper 32 bits are used
+     * @return satisfying value
+     */
+    public int sample(long bits) {
+        return values[SeededRandom.bounded(bits, values.length)];
+    }
+
+    @Override
+    public String toString() {
+        return "SatisfyingValues{size=" + values.length + ", hash=" + Integer.toHexString(Arrays.hashCode(values)) + "}";
+    }
+}
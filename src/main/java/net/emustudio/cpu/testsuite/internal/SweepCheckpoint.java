@@ -0,0 +1,219 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.internal;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * INTERNAL CLASS. DO NOT USE DIRECTLY.
+ *
+ * Progress of an exhaustive sweep, persisted in a local file. The sweep is split into rows (usually a row is a single
+ * first operand); completed rows are saved periodically, failures immediately. When the sweep completes, the file is
+ * deleted. A sweep with the same identity started later skips the rows which were already completed.
+ *
+ * Sweeps with the same identity cannot be told apart. Therefore, a sweep which was already opened by this JVM cannot
+ * be opened again, unless it failed (so it can be re-run, e.g. by a retried test).
+ */
+@ThreadSafe
+public class SweepCheckpoint {
+    public static final SweepCheckpoint NONE = new SweepCheckpoint(null, "", new BitSet(), Collections.emptyList());
+
+    private static final long SAVE_INTERVAL_NANOS = 10_000_000_000L;
+    private static final String KEY_SWEEP = "sweep";
+    private static final String KEY_DONE = "done";
+    private static final String KEY_FAILURES = "failures";
+    private static final String KEY_FAILURE = "failure.";
+    private static final Set<String> OPENED = ConcurrentHashMap.newKeySet();
+
+    private final Path file;
+    private final String sweepId;
+    private final BitSet done;
+    private final List<String> failures;
+    private long lastSave = System.nanoTime();
+
+    private SweepCheckpoint(Path file, String sweepId, BitSet done, List<String> failures) {
+        this.file = file;
+        this.sweepId = Objects.requireNonNull(sweepId);
+        this.done = Objects.requireNonNull(done);
+        this.failures = new ArrayList<>(failures);
+    }
+
+    /**
+     * Open checkpoint of a sweep. If the checkpoint file exists and it belongs to the same sweep, the progress
+     * is restored.
+     *
+     * @param directory directory with checkpoint files
+     * @param sweepId identity of the sweep
+     * @return sweep checkpoint
+     * @throws IllegalStateException if a sweep with the same identity was already opened and it did not fail
+     */
+    public static SweepCheckpoint open(Path directory, String sweepId) {
+        if (!OPENED.add(sweepId)) {
+            throw new IllegalStateException(
+                    "Sweep " + sweepId + " was already run, and its checkpoints would mix with this one. Run it in "
+                            + "a separate test method, or use TestRunners with different instructions."
+            );
+        }
+        String name = UUID.nameUUIDFromBytes(sweepId.getBytes(StandardCharsets.UTF_8)).toString();
+        Path file = directory.resolve("sweep-" + name + ".checkpoint");
+        BitSet done = new BitSet();
+        List<String> failures = new ArrayList<>();
+
+        if (Files.isRegularFile(file)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read checkpoint " + file, e);
+            }
+            if (sweepId.equals(properties.getProperty(KEY_SWEEP))) {
+                done = parseRanges(properties.getProperty(KEY_DONE, ""));
+                int count = Integer.parseInt(properties.getProperty(KEY_FAILURES, "0"));
+                for (int i = 0; i < count; i++) {
+                    failures.add(properties.getProperty(KEY_FAILURE + i, ""));
+                }
+                System.out.println("Resuming sweep " + sweepId + " from checkpoint " + file + " (" + done.cardinality()
+                    + " rows done, previous failures: " + failures + ")");
+            }
+        }
+        return new SweepCheckpoint(file, sweepId, done, failures);
+    }
+
+    /**
+     * Run all rows in range [from, to) which were not completed yet. When all rows are completed, the checkpoint
+     * is deleted.
+     *
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     * @param row sweep of a single row
+     */
+    public void sweep(int from, int to, IntConsumer row) {
+        for (int i = from; i < to; i++) {
+            if (!isDone(i)) {
+                try {
+                    row.accept(i);
+                } catch (Throwable e) {
+                    rowFailed(i, e);
+                    throw e;
+                }
+                rowDone(i);
+            }
+        }
+        completed();
+    }
+
+    public synchronized boolean isDone(int row) {
+        return done.get(row);
+    }
+
+    public synchronized void rowDone(int row) {
+        if (file == null) {
+            return;
+        }
+        done.set(row);
+        if (System.nanoTime() - lastSave >= SAVE_INTERVAL_NANOS) {
+            save();
+        }
+    }
+
+    public synchronized void rowFailed(int row, Throwable e) {
+        if (file != null) {
+            failures.add("row " + row + ": " + e);
+            save();
+            OPENED.remove(sweepId);
+        }
+    }
+
+    public synchronized void completed() {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete checkpoint " + file, e);
+            }
+        }
+    }
+
+    private void save() {
+        lastSave = System.nanoTime();
+
+        Properties properties = new Properties();
+        properties.setProperty(KEY_SWEEP, sweepId);
+        properties.setProperty(KEY_DONE, formatRanges(done));
+        properties.setProperty(KEY_FAILURES, String.valueOf(failures.size()));
+        for (int i = 0; i < failures.size(); i++) {
+            properties.setProperty(KEY_FAILURE + i, failures.get(i));
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "cpu-testsuite sweep checkpoint");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save checkpoint " + file, e);
+        }
+    }
+
+    private static String formatRanges(BitSet bits) {
+        StringBuilder builder = new StringBuilder();
+        int from = bits.nextSetBit(0);
+        while (from >= 0) {
+            int to = bits.nextClearBit(from);
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(from).append('-').append(to);
+            from = bits.nextSetBit(to);
+        }
+        return builder.toString();
+    }
+
+    private static BitSet parseRanges(String ranges) {
+        BitSet bits = new BitSet();
+        for (String range : ranges.split(",")) {
+            if (!range.isBlank()) {
+                String[] bounds = range.trim().split("-");
+                bits.set(Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]));
+            }
+        }
+        return bits;
+    }
+}
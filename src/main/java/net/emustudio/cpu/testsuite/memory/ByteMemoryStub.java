@@ -22,6 +22,7 @@ import net.emustudio.emulib.plugins.memory.Memory;
 import net.emustudio.emulib.runtime.helpers.NumberUtils;
 
 import java.util.Arrays;
+import java.util.BitSet;
 
 import static net.emustudio.emulib.runtime.helpers.NumberUtils.nativeShortsToBytes;
 
@@ -31,6 +32,9 @@ public class ByteMemoryStub implements MemoryStub<Byte> {
 
     protected Byte[] memory = new Byte[1000];
 
+    // pages written since the last setMemory() call; direct writes into the memory array are not tracked
+    private final BitSet writtenPages = new BitSet();
+
     public ByteMemoryStub(int wordReadingStrategy) {
         Arrays.fill(memory, (byte) 0);
         this.wordReadingStrategy = wordReadingStrategy;
@@ -38,10 +42,12 @@ public class ByteMemoryStub implements MemoryStub<Byte> {
 
     public void setMemory(byte[] memory) {
         this.memory = NumberUtils.nativeBytesToBytes(memory);
+        writtenPages.set(0, pageCount());
     }
 
     public void setMemory(Byte[] memory) {
         this.memory = memory;
+        writtenPages.set(0, pageCount());
     }
 
     @Override
@@ -58,11 +64,15 @@ public class ByteMemoryStub implements MemoryStub<Byte> {
     @Override
     public void write(int memoryPosition, Byte value) {
         memory[memoryPosition] = value;
+        writtenPages.set(memoryPosition >>> PAGE_BITS);
     }
 
     @Override
     public void write(int memoryPosition, Byte[] cells, int count) {
         System.arraycopy(cells, 0, memory, memoryPosition, count);
+        if (count > 0) {
+            writtenPages.set(memoryPosition >>> PAGE_BITS, ((memoryPosition + count - 1) >>> PAGE_BITS) + 1);
+        }
     }
 
     @Override
@@ -73,6 +83,7 @@ public class ByteMemoryStub implements MemoryStub<Byte> {
     @Override
     public void clear() {
         Arrays.fill(memory, (byte) 0);
+        writtenPages.set(0, pageCount());
     }
 
     @Override
@@ -103,10 +114,32 @@ public class ByteMemoryStub implements MemoryStub<Byte> {
     @Override
     public void setMemory(short[] memory) {
         this.memory = nativeShortsToBytes(memory);
+        writtenPages.clear();
+    }
+
+    @Override
+    public void setMemory(short[] memory, BitSet changedPages) {
+        if (this.memory.length != memory.length) {
+            setMemory(memory);
+            return;
+        }
+        writtenPages.or(changedPages);
+        for (int page = writtenPages.nextSetBit(0); page >= 0; page = writtenPages.nextSetBit(page + 1)) {
+            int from = page << PAGE_BITS;
+            int to = Math.min(from + (1 << PAGE_BITS), memory.length);
+            for (int i = from; i < to; i++) {
+                this.memory[i] = (byte) memory[i];
+            }
+        }
+        writtenPages.clear();
     }
 
     @Override
     public int getWordReadingStrategy() {
         return wordReadingStrategy;
     }
+
+    private int pageCount() {
+        return (memory.length + (1 << PAGE_BITS) - 1) >>> PAGE_BITS;
+    }
 }
@@ -21,10 +21,51 @@ package net.emustudio.cpu.testsuite.memory;
 
 import net.emustudio.emulib.plugins.memory.MemoryContext;
 
+import java.util.BitSet;
+
 @SuppressWarnings("unused")
 public interface MemoryStub<T extends Number> extends MemoryContext<T> {
+    /**
+     * Memory is tracked in pages of 2^PAGE_BITS cells.
+     */
+    int PAGE_BITS = 8;
 
     void setMemory(short[] memory);
 
+    /**
+     * Set memory content, when only some pages have changed since the previous call.
+     *
+     * Implementations can copy only the changed pages and pages written since the previous call (e.g. by the CPU),
+     * instead of the whole memory. By default, the whole memory is set.
+     *
+     * @param memory new memory content
+     * @param changedPages pages (address &gt;&gt;&gt; PAGE_BITS) of the content changed since the previous call
+     */
+    default void setMemory(short[] memory, BitSet changedPages) {
+        setMemory(memory);
+    }
+
     int getWordReadingStrategy();
+
+    /**
+     * Write a byte value into memory cell, converted to the memory data type.
+     *
+     * @param address memory address
+     * @param value byte value (unsigned)
+     */
+    @SuppressWarnings("unchecked")
+    default void writeByte(int address, int value) {
+        Class<T> dataType = getDataType();
+        Number cell;
+        if (dataType == Byte.class) {
+            cell = (byte) value;
+        } else if (dataType == Short.class) {
+            cell = (short) value;
+        } else if (dataType == Integer.class) {
+            cell = value;
+        } else {
+            cell = (long) value;
+        }
+        write(address, (T) cell);
+    }
 }
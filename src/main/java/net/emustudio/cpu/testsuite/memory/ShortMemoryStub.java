@@ -22,13 +22,26 @@ import net.emustudio.emulib.plugins.memory.Memory;
 import net.emustudio.emulib.runtime.helpers.NumberUtils;
 
 import java.util.Arrays;
+import java.util.BitSet;
 
 @SuppressWarnings("unused")
 public class ShortMemoryStub implements MemoryStub<Short> {
+    // boxed cells of byte values; Short.valueOf() caches only values up to 127
+    private static final Short[] BYTE_CELLS = new Short[256];
+
+    static {
+        for (int i = 0; i < BYTE_CELLS.length; i++) {
+            BYTE_CELLS[i] = (short) i;
+        }
+    }
+
     private final int wordReadingStrategy;
 
     protected Short[] memory = new Short[1000];
 
+    // pages written since the last setMemory() call; direct writes into the memory array are not tracked
+    private final BitSet writtenPages = new BitSet();
+
     public ShortMemoryStub(int wordReadingStrategy) {
         Arrays.fill(memory, (short) 0);
         this.wordReadingStrategy = wordReadingStrategy;
@@ -37,6 +50,7 @@ public class ShortMemoryStub implements MemoryStub<Short> {
     @Override
     public void setMemory(short[] memory) {
         this.memory = NumberUtils.nativeShortsToShorts(memory);
+        writtenPages.clear();
     }
 
     @Override
@@ -53,11 +67,20 @@ public class ShortMemoryStub implements MemoryStub<Short> {
     @Override
     public void write(int memoryPosition, Short value) {
         memory[memoryPosition] = value;
+        writtenPages.set(memoryPosition >>> PAGE_BITS);
     }
 
     @Override
     public void write(int memoryPosition, Short[] cells, int count) {
         System.arraycopy(cells, 0, memory, memoryPosition, count);
+        if (count > 0) {
+            writtenPages.set(memoryPosition >>> PAGE_BITS, ((memoryPosition + count - 1) >>> PAGE_BITS) + 1);
+        }
+    }
+
+    @Override
+    public void writeByte(int address, int value) {
+        write(address, BYTE_CELLS[value & 0xFF]);
     }
 
     @Override
@@ -68,6 +91,7 @@ public class ShortMemoryStub implements MemoryStub<Short> {
     @Override
     public void clear() {
         Arrays.fill(memory, (short) 0);
+        writtenPages.set(0, pageCount());
     }
 
     @Override
@@ -95,8 +119,33 @@ public class ShortMemoryStub implements MemoryStub<Short> {
 
     }
 
+    @Override
+    public void setMemory(short[] memory, BitSet changedPages) {
+        if (this.memory.length != memory.length) {
+            setMemory(memory);
+            return;
+        }
+        writtenPages.or(changedPages);
+        for (int page = writtenPages.nextSetBit(0); page >= 0; page = writtenPages.nextSetBit(page + 1)) {
+            int from = page << PAGE_BITS;
+            int to = Math.min(from + (1 << PAGE_BITS), memory.length);
+            for (int i = from; i < to; i++) {
+                this.memory[i] = box(memory[i]);
+            }
+        }
+        writtenPages.clear();
+    }
+
     @Override
     public int getWordReadingStrategy() {
         return wordReadingStrategy;
     }
+
+    private static Short box(short cell) {
+        return (cell >= 0 && cell < BYTE_CELLS.length) ? BYTE_CELLS[cell] : Short.valueOf(cell);
+    }
+
+    private int pageCount() {
+        return (memory.length + (1 << PAGE_BITS) - 1) >>> PAGE_BITS;
+    }
 }
@@ -25,16 +25,21 @@ import net.emustudio.cpu.testsuite.RunnerContext;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntFunction;
 
 /**
  * Flags verifier.
  *
  * Used as test verifier.
  *
- * @param <TOperand> operands type (Byte or Integer)
+ * FlagsCheck keeps expected flags in mutable fields, so it must not be shared by verifiers running on more threads.
+ * Each test environment must create its own FlagsCheck (see TestPool).
+ *
+ * @param <TOperand> operands type (Byte, Integer or Long)
  */
 public class FlagsVerifier<TOperand extends Number> implements Consumer<RunnerContext<TOperand>> {
-    private final Function<RunnerContext<TOperand>, Integer> operation;
+    private final ToIntFunction<RunnerContext<TOperand>> operation;
     private final FlagsCheck<TOperand, ?> flagsCheck;
     private final CpuVerifier verifier;
 
@@ -46,17 +51,53 @@ public class FlagsVerifier<TOperand extends Number> implements Consumer<RunnerCo
      * @param flagsCheck flags checker
      */
     public FlagsVerifier(CpuVerifier verifier, Function<RunnerContext<TOperand>, Integer> operation, FlagsCheck<TOperand, ?> flagsCheck) {
-        this.operation = Objects.requireNonNull(operation);
+        Objects.requireNonNull(operation);
+        this.operation = operation::apply;
         this.flagsCheck = Objects.requireNonNull(flagsCheck);
         this.verifier = Objects.requireNonNull(verifier);
     }
 
-    @Override
-    public void accept(RunnerContext<TOperand> context) {
+    /**
+     * Creates new flags verifier with primitive operation.
+     *
+     * @param verifier CPU verifier
+     * @param operation operation taking unsigned operands (first, second), which will be used for checking flags
+     * @param flagsCheck flags checker
+     */
+    public FlagsVerifier(CpuVerifier verifier, IntBinaryOperator operation, FlagsCheck<TOperand, ?> flagsCheck) {
+        Objects.requireNonNull(operation);
+        this.operation = context -> operation.applyAsInt(context.getFirstAsInt(), context.getSecondAsInt());
+        this.flagsCheck = Objects.requireNonNull(flagsCheck);
+        this.verifier = Objects.requireNonNull(verifier);
+    }
+
+    /**
+     * Evaluate flags which are expected to be set for given context, without checking the CPU.
+     *
+     * @param context runner context
+     * @return expected flags
+     */
+    public int expectedFlags(RunnerContext<TOperand> context) {
         flagsCheck.reset();
-        flagsCheck.eval(context, operation.apply(context));
+        flagsCheck.eval(context, operation.applyAsInt(context));
+        return flagsCheck.getExpectedFlags();
+    }
 
-        verifier.checkFlags(flagsCheck.getExpectedFlags());
+    /**
+     * Evaluate which flags differ from the expected ones.
+     *
+     * @param context runner context
+     * @param actualFlags flags after test execution
+     * @return flags which should be set but are not, or should not be set but are
+     */
+    public int wrongFlags(RunnerContext<TOperand> context, int actualFlags) {
+        int expected = expectedFlags(context);
+        return (expected & ~actualFlags) | (flagsCheck.getNotExpectedFlags() & actualFlags);
+    }
+
+    @Override
+    public void accept(RunnerContext<TOperand> context) {
+        verifier.checkFlags(expectedFlags(context));
         verifier.checkNotFlags(flagsCheck.getNotExpectedFlags());
     }
 }
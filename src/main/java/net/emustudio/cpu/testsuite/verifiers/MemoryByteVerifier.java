@@ -24,21 +24,32 @@ import net.emustudio.cpu.testsuite.RunnerContext;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntFunction;
 
 public class MemoryByteVerifier<T extends Number> implements Consumer<RunnerContext<T>> {
-    private final Function<RunnerContext<T>, Integer> operation;
+    private final ToIntFunction<RunnerContext<T>> operation;
     private final CpuVerifier verifier;
     private final Function<RunnerContext<T>, Integer> address;
 
     public MemoryByteVerifier(CpuVerifier verifier, Function<RunnerContext<T>, Integer> operation,
                               Function<RunnerContext<T>, Integer> addressOperator) {
-        this.operation = Objects.requireNonNull(operation);
+        Objects.requireNonNull(operation);
+        this.operation = operation::apply;
+        this.verifier = Objects.requireNonNull(verifier);
+        this.address = Objects.requireNonNull(addressOperator);
+    }
+
+    public MemoryByteVerifier(CpuVerifier verifier, IntBinaryOperator operation,
+                              Function<RunnerContext<T>, Integer> addressOperator) {
+        Objects.requireNonNull(operation);
+        this.operation = context -> operation.applyAsInt(context.getFirstAsInt(), context.getSecondAsInt());
         this.verifier = Objects.requireNonNull(verifier);
         this.address = Objects.requireNonNull(addressOperator);
     }
 
     @Override
     public void accept(RunnerContext<T> context) {
-        verifier.checkMemoryByte(address.apply(context), operation.apply(context));
+        verifier.checkMemoryByte(address.apply(context), operation.applyAsInt(context));
     }
 }
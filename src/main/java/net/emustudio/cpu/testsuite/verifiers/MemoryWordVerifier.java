@@ -24,22 +24,33 @@ import net.emustudio.cpu.testsuite.RunnerContext;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntFunction;
 
 public class MemoryWordVerifier<T extends Number> implements Consumer<RunnerContext<T>> {
-    private final Function<RunnerContext<T>, Integer> operation;
+    private final ToIntFunction<RunnerContext<T>> operation;
     private final Function<RunnerContext<T>, Integer> addressOperation;
     private final CpuVerifier verifier;
 
     public MemoryWordVerifier(CpuVerifier verifier, Function<RunnerContext<T>, Integer> operation,
                               Function<RunnerContext<T>, Integer> addressOperation) {
-        this.operation = Objects.requireNonNull(operation);
+        Objects.requireNonNull(operation);
+        this.operation = operation::apply;
+        this.addressOperation = Objects.requireNonNull(addressOperation);
+        this.verifier = Objects.requireNonNull(verifier);
+    }
+
+    public MemoryWordVerifier(CpuVerifier verifier, IntBinaryOperator operation,
+                              Function<RunnerContext<T>, Integer> addressOperation) {
+        Objects.requireNonNull(operation);
+        this.operation = context -> operation.applyAsInt(context.getFirstAsInt(), context.getSecondAsInt());
         this.addressOperation = Objects.requireNonNull(addressOperation);
         this.verifier = Objects.requireNonNull(verifier);
     }
 
     @Override
     public void accept(RunnerContext<T> context) {
-        int expectedResult = operation.apply(context);
+        int expectedResult = operation.applyAsInt(context);
         int address = addressOperation.apply(context);
 
         verifier.checkMemoryTwoBytes(address, expectedResult);
@@ -0,0 +1,133 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.MemoryByte;
+import net.emustudio.cpu.testsuite.injectors.OneOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchExecutionTest {
+    private static final int CASES = 1000;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCasesAreLaidOutOneAfterAnother() {
+        StubCpuRunner cpuRunner = StubCpuRunner.executing(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        List<Integer> loaded = new ArrayList<>();
+        runner.injectFirst(new OneOperInstr<>(StubCpuRunner.LOAD_OPCODE));
+        runner.verifyAfterTest(context -> {
+            assertEquals(context.getFirstAsInt(), cpuRunner.getRegisters().get(0).intValue());
+            loaded.add(context.getFirstAsInt());
+        });
+
+        runner.runBatch(pairs(), 0, CASES);
+
+        assertEquals(CASES, loaded.size());
+        for (int k = 0; k < CASES; k++) {
+            assertEquals(k & 0xFF, (int) loaded.get(k));
+            assertEquals(StubCpuRunner.LOAD_OPCODE, cpuRunner.memoryStub.read(2 * k).intValue());
+            assertEquals(k & 0xFF, cpuRunner.memoryStub.read(2 * k + 1).intValue());
+        }
+        // one reset per batch instead of one per test case
+        assertEquals(1, cpuRunner.resets);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testControlFlowChangeFallsBackToSingleCases() {
+        StubCpuRunner cpuRunner = StubCpuRunner.executing(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        List<Integer> executed = new ArrayList<>();
+        runner.injectFirst(new OneOperInstr<>(StubCpuRunner.LOAD_OPCODE + 1));
+        runner.verifyAfterTest(context -> {
+            assertEquals(0, cpuRunner.getPC());
+            executed.add(context.getFirstAsInt());
+        });
+
+        runner.runBatch(pairs(), 0, CASES);
+
+        assertEquals(CASES, executed.size());
+        for (int k = 0; k < CASES; k++) {
+            assertEquals(k & 0xFF, (int) executed.get(k));
+        }
+        assertTrue(String.valueOf(cpuRunner.resets), cpuRunner.resets >= CASES);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInjectorOverwritingBatchFallsBackToSingleCases() {
+        StubCpuRunner cpuRunner = StubCpuRunner.executing(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        List<Integer> loaded = new ArrayList<>();
+        runner.injectFirst(new OneOperInstr<>(StubCpuRunner.LOAD_OPCODE));
+        // the operand of the third test case in a batch
+        runner.injectSecond(new MemoryByte<>(5));
+        runner.verifyAfterTest(context -> {
+            assertEquals(context.getFirstAsInt(), cpuRunner.getRegisters().get(0).intValue());
+            loaded.add(context.getFirstAsInt());
+        });
+
+        runner.runBatch(pairs(), 0, CASES);
+
+        assertEquals(CASES, loaded.size());
+        assertTrue(String.valueOf(cpuRunner.resets), cpuRunner.resets >= CASES);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailureInBatchIsReported() {
+        StubCpuRunner cpuRunner = StubCpuRunner.executing(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        List<Integer> loaded = new ArrayList<>();
+        runner.injectFirst(new OneOperInstr<>(StubCpuRunner.LOAD_OPCODE));
+        runner.verifyAfterTest(context -> {
+            loaded.add(context.getFirstAsInt());
+            assertTrue("Loaded " + context.getFirstAsInt(), context.getFirstAsInt() != 0x42);
+        });
+
+        try {
+            runner.runBatch(pairs(), 0, CASES);
+            fail("Expected AssertionError");
+        } catch (AssertionError e) {
+            assertSame(e, runner.getLastFailure());
+            assertEquals("Loaded 66", e.getMessage());
+        }
+        assertEquals(0x43, loaded.size());
+    }
+
+    private static long[] pairs() {
+        long[] pairs = new long[CASES];
+        for (int k = 0; k < CASES; k++) {
+            // the second operand differs from the first one
+            pairs[k] = OperandPair.pack(k & 0xFF, ~k & 0xFF);
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CommutativeSweepTest {
+
+    @Test
+    public void testCommutativeRunnerSkipsSymmetric8bitPairs() {
+        Set<Integer> pairs = new HashSet<>();
+        TestRunner<StubCpuRunner, Byte> runner = byteRunner(pairs).commutative();
+
+        Generator.forAll8bitBinary(runner);
+
+        assertEquals(256 * 257 / 2, pairs.size());
+        assertTrue(pairs.contains(pair(0, 0xFF)));
+        assertFalse(pairs.contains(pair(0xFF, 0)));
+    }
+
+    @Test
+    public void testNonCommutativeRunnerGetsAll8bitPairs() {
+        Set<Integer> pairs = new HashSet<>();
+
+        Generator.forAll8bitBinary(byteRunner(pairs));
+
+        assertEquals(256 * 256, pairs.size());
+        assertTrue(pairs.contains(pair(0xFF, 0)));
+    }
+
+    @Test
+    public void testOneNonCommutativeRunnerKeepsFullCoverage() {
+        Set<Integer> commutativePairs = new HashSet<>();
+        Set<Integer> pairs = new HashSet<>();
+
+        Generator.forAll8bitBinary(
+                byteRunner(commutativePairs).commutative(),
+                byteRunner(pairs)
+        );
+
+        assertEquals(256 * 256, commutativePairs.size());
+        assertEquals(256 * 256, pairs.size());
+    }
+
+    @Test
+    public void testCommutativeRunnerSkipsSymmetric16bitPairs() {
+        Set<Integer> pairs = new HashSet<>();
+
+        Generator.forAll16bitBinary(0xFFFE, 0xFFFE, wordRunner(pairs).commutative());
+
+        assertEquals(Set.of(pair(0xFFFE, 0xFFFE), pair(0xFFFE, 0xFFFF), pair(0xFFFF, 0xFFFF)), pairs);
+    }
+
+    @Test
+    public void testSymmetryNeedsTheSameDomainForBothOperands() {
+        Predicate<Integer> pageAligned = value -> (value & 0xFFF) == 0;
+        Set<Integer> symmetric = new HashSet<>();
+        Set<Integer> asymmetric = new HashSet<>();
+
+        Generator.forAll16bitBinaryBothSatisfying(
+                pageAligned, pageAligned, wordRunner(symmetric).commutative()
+        );
+        Generator.forAll16bitBinaryBothSatisfying(
+                pageAligned, value -> (value & 0xFFF) == 0, wordRunner(asymmetric).commutative()
+        );
+
+        assertEquals(16 * 17 / 2, symmetric.size());
+        assertEquals(16 * 16, asymmetric.size());
+    }
+
+    @Test
+    public void testBuilderMarksOnlyTheNextRunner() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        StubTestBuilder builder = new StubTestBuilder(cpuRunner);
+
+        assertTrue(builder.commutative().run(0).isCommutative());
+        assertFalse(builder.run(0).isCommutative());
+    }
+
+    private static TestRunner<StubCpuRunner, Byte> byteRunner(Set<Integer> pairs) {
+        return recordingRunner(OperandType.BYTE, pairs);
+    }
+
+    private static TestRunner<StubCpuRunner, Integer> wordRunner(Set<Integer> pairs) {
+        return recordingRunner(OperandType.WORD, pairs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Number> TestRunner<StubCpuRunner, T> recordingRunner(OperandType type,
+                                                                                   Set<Integer> pairs) {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, T> runner = new TestRunner<>(cpuRunner, type);
+        runner.injectNoOperand(new NoOperInstr<>(0));
+        runner.verifyAfterTest(context -> pairs.add(pair(context.getFirstAsInt(), context.getSecondAsInt())));
+        return runner;
+    }
+
+    private static int pair(int first, int second) {
+        return (first << 16) | second;
+    }
+
+    private static final class StubTestBuilder extends TestBuilder<Byte, StubTestBuilder, StubCpuRunner, CpuVerifier> {
+
+        StubTestBuilder(StubCpuRunner cpuRunner) {
+            super(cpuRunner, new CpuVerifier(cpuRunner.memoryStub) {
+                @Override
+                public void checkFlags(int mask) {
+                }
+
+                @Override
+                public void checkNotFlags(int mask) {
+                }
+            });
+        }
+    }
+}
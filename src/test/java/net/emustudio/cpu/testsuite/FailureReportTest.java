@@ -0,0 +1,94 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FailureReportTest {
+
+    private static final class AlwaysFails implements Consumer<RunnerContext<Byte>> {
+        @Override
+        public void accept(RunnerContext<Byte> context) {
+            throw new AssertionError("always");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TestRunner<StubCpuRunner, Byte> newRunner(FailureReport report) {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        runner.injectNoOperand(new NoOperInstr<>(0x80));
+        runner.verifyAfterTest(context -> {
+            if ((context.getFirstAsInt() & 1) != 0) {
+                throw new AssertionError("odd");
+            }
+        });
+        runner.verifyAfterTest(new AlwaysFails());
+        runner.collectFailures(report);
+        return runner;
+    }
+
+    @Test
+    public void testFailuresAreCountedPerVerifierPosition() {
+        FailureReport report = new FailureReport(2);
+        TestRunner<StubCpuRunner, Byte> runner = newRunner(report);
+        TestRunner<StubCpuRunner, Byte> copy = runner.clone();
+
+        for (int first = 0; first < 10; first++) {
+            runner.acceptOperands(first, 0);
+            copy.acceptOperands(first, 1);
+        }
+
+        assertEquals(20, report.getFailedCases());
+        assertEquals(1, report.getFailuresPerInstruction().size());
+        assertEquals(30, report.getFailures());
+        Map<String, Long> perVerifier = report.getFailuresPerVerifier();
+        String instruction = List.copyOf(report.getFailuresPerInstruction().keySet()).get(0);
+        assertEquals(2, perVerifier.size());
+        assertEquals(10L, (long) perVerifier.get(instruction + ", verifier #0"));
+        assertEquals(20L, (long) perVerifier.get(instruction + ", verifier #1 (AlwaysFails)"));
+        assertEquals(2, report.getSamples(instruction + ", verifier #1 (AlwaysFails)").size());
+        assertTrue(report.hasFailed(9, 1));
+        assertFalse(report.hasFailed(10, 0));
+    }
+
+    @Test
+    public void testReExecutionsAreNotRecorded() {
+        FailureReport report = new FailureReport(2);
+        TestRunner<StubCpuRunner, Byte> runner = newRunner(report);
+        runner.acceptOperands(1, 0);
+
+        Throwable failure = runner.rerun(3, 0, -1, true);
+
+        assertEquals("odd", failure.getMessage());
+        assertEquals(2, report.getFailures());
+        assertFalse(report.hasFailed(3, 0));
+    }
+}
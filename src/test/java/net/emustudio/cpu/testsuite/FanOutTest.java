@@ -0,0 +1,148 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FanOutTest {
+    private static final int RUNNERS = 8;
+
+    @After
+    public void tearDown() {
+        Generator.setParallelism(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    public void testEachRunnerIsSweptOnceOnItsOwnCpu() {
+        AtomicIntegerArray runs = new AtomicIntegerArray(RUNNERS);
+        AtomicInteger sharedCpus = new AtomicInteger();
+        AtomicInteger factoryCalls = new AtomicInteger();
+
+        Generator.setParallelism(4);
+        Generator.forEachRunnerConcurrently(() -> {
+            factoryCalls.incrementAndGet();
+            return runners(runs, sharedCpus);
+        }, Generator::forAll8bitUnary);
+
+        for (int i = 0; i < RUNNERS; i++) {
+            assertEquals("runner #" + i, 256, runs.get(i));
+        }
+        assertEquals(0, sharedCpus.get());
+        // once for the runner count, then once per worker thread
+        assertTrue("factory calls: " + factoryCalls.get(), factoryCalls.get() <= 1 + 4);
+    }
+
+    @Test
+    public void testRunnersAreNotKeptAfterFanOut() {
+        AtomicIntegerArray runs = new AtomicIntegerArray(RUNNERS);
+        AtomicInteger sharedCpus = new AtomicInteger();
+        AtomicInteger factoryCalls = new AtomicInteger();
+        RunnersFactory<Byte> factory = () -> {
+            factoryCalls.incrementAndGet();
+            return runners(runs, sharedCpus);
+        };
+
+        Generator.setParallelism(1);
+        Generator.forEachRunnerConcurrently(factory, Generator::forAll8bitUnary);
+        Generator.forEachRunnerConcurrently(factory, Generator::forAll8bitUnary);
+
+        // the single worker thread creates its runners in each fan-out again
+        assertEquals(4, factoryCalls.get());
+        for (int i = 0; i < RUNNERS; i++) {
+            assertEquals("runner #" + i, 2 * 256, runs.get(i));
+        }
+    }
+
+    @Test
+    public void testFailuresAreAggregatedPerRunner() {
+        AtomicIntegerArray runs = new AtomicIntegerArray(RUNNERS);
+        AssertionError first = new AssertionError("first");
+        AssertionError third = new AssertionError("third");
+
+        Generator.setParallelism(4);
+        try {
+            Generator.forEachRunnerConcurrently(() -> {
+                List<BiConsumer<Byte, Byte>> runners = new ArrayList<>();
+                for (int i = 0; i < RUNNERS; i++) {
+                    int index = i;
+                    runners.add((operand, unused) -> {
+                        runs.incrementAndGet(index);
+                        if (index == 1 && operand == 0x10) {
+                            throw first;
+                        } else if (index == 3 && operand == 0x20) {
+                            throw third;
+                        }
+                    });
+                }
+                return runners;
+            }, Generator::forAll8bitUnary);
+            fail("The fan-out should fail");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("2 of " + RUNNERS + " runners failed:"));
+            assertTrue(e.getMessage(), e.getMessage().contains("runner #1") && e.getMessage().contains("runner #3"));
+            assertSame(first, e.getCause());
+            assertEquals(1, e.getSuppressed().length);
+            assertSame(third, e.getSuppressed()[0]);
+        }
+
+        // a failure does not cancel other runners
+        for (int i = 0; i < RUNNERS; i++) {
+            if (i != 1 && i != 3) {
+                assertEquals("runner #" + i, 256, runs.get(i));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TestRunner<StubCpuRunner, Byte>> runners(AtomicIntegerArray runs, AtomicInteger sharedCpus) {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+        AtomicReference<Thread> owner = new AtomicReference<>();
+        List<TestRunner<StubCpuRunner, Byte>> runners = new ArrayList<>();
+        for (int i = 0; i < RUNNERS; i++) {
+            int index = i;
+            TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+            runner.injectNoOperand(new NoOperInstr<>(index));
+            runner.verifyAfterTest(context -> {
+                // runners created by a single factory call share the CPU
+                if (!owner.compareAndSet(null, Thread.currentThread()) && owner.get() != Thread.currentThread()) {
+                    sharedCpus.incrementAndGet();
+                }
+                runs.incrementAndGet(index);
+            });
+            runners.add(runner);
+        }
+        return runners;
+    }
+}
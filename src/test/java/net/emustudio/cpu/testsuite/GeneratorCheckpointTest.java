@@ -0,0 +1,121 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class GeneratorCheckpointTest {
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("checkpoints");
+        Generator.setCheckpointDirectory(directory);
+    }
+
+    @After
+    public void tearDown() {
+        Generator.setCheckpointDirectory(null);
+    }
+
+    @Test
+    public void testFailedSweepResumesFromCheckpoint() {
+        List<Integer> rows = new ArrayList<>();
+        try {
+            Generator.forAll16bitBinaryFirstSatisfying(value -> value < 4, rowsRunner(rows, 2));
+            fail("Sweep did not fail");
+        } catch (AssertionError e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertEquals(List.of(0, 1, 2), rows);
+
+        rows.clear();
+        Generator.forAll16bitBinaryFirstSatisfying(value -> value < 4, rowsRunner(rows, -1));
+        assertEquals(List.of(2, 3), rows);
+    }
+
+    @Test
+    public void testSweepsOfDifferentInstructionsDoNotShareCheckpoint() {
+        List<Integer> rows = new ArrayList<>();
+        try {
+            Generator.forAll16bitBinaryFirstSatisfying(value -> value < 2, runner(0x09, rows, 1));
+            fail("Sweep did not fail");
+        } catch (AssertionError e) {
+            assertEquals("boom", e.getMessage());
+        }
+
+        rows.clear();
+        Generator.forAll16bitBinaryFirstSatisfying(value -> value < 2, runner(0x19, rows, -1));
+        assertEquals(List.of(0, 1), rows);
+    }
+
+    @Test
+    public void testSweepsWhichCannotBeToldApartFail() {
+        List<Integer> rows = new ArrayList<>();
+        Generator.forAll16bitBinaryFirstSatisfying(value -> value < 4, rowsRunner(rows, -1));
+        try {
+            Generator.forAll16bitBinaryFirstSatisfying(value -> value < 4, rowsRunner(rows, -1));
+            fail("Sweep with the same identity did not fail");
+        } catch (IllegalStateException e) {
+            assertEquals(List.of(0, 1, 2, 3), rows);
+        }
+    }
+
+    private static BiConsumer<Integer, Integer> rowsRunner(List<Integer> rows, int failingRow) {
+        return (first, second) -> {
+            if (second == 0) {
+                rows.add(first);
+            }
+            if (first == failingRow && second == 5) {
+                throw new AssertionError("boom");
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Integer, Integer> runner(int opcode, List<Integer> rows, int failingRow) {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Integer> runner = new TestRunner<>(cpuRunner, OperandType.WORD);
+        runner.injectNoOperand(new NoOperInstr<>(opcode));
+        runner.verifyAfterTest(context -> {
+            if (context.getSecondAsInt() == 0) {
+                rows.add(context.getFirstAsInt());
+            }
+            if (context.getFirstAsInt() == failingRow && context.getSecondAsInt() == 5) {
+                throw new AssertionError("boom");
+            }
+        });
+        return runner;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GeneratorTest {
+
+    @Test
+    public void testBudgetSamplesAreDistinct() {
+        Set<Integer> pairs = new HashSet<>();
+        Coverage coverage = Generator.forBudget(
+                Budget.ofCases(40000), OperandSpace.binary8(),
+                (first, second) -> pairs.add(((first & 0xFF) << 8) | (second & 0xFF))
+        );
+
+        assertFalse(coverage.exhaustive);
+        assertEquals(40000, coverage.executedCases);
+        assertEquals(coverage.executedCases, pairs.size());
+    }
+
+    @Test
+    public void testCasesBudgetIsChargedForEachRunner() {
+        Set<Integer> pairs = new HashSet<>();
+        Set<Integer> otherPairs = new HashSet<>();
+        Budget budget = Budget.ofCases(40000);
+        Coverage coverage = Generator.forBudget(
+                budget, OperandSpace.binary8(),
+                (first, second) -> pairs.add(((first & 0xFF) << 8) | (second & 0xFF)),
+                (first, second) -> otherPairs.add(((first & 0xFF) << 8) | (second & 0xFF))
+        );
+
+        assertFalse(coverage.exhaustive);
+        assertEquals(20000, coverage.executedCases);
+        assertEquals(20000, pairs.size());
+        assertEquals(pairs, otherPairs);
+        assertEquals(0, budget.remaining());
+    }
+
+    @Test
+    public void testExhaustiveSweepIsChargedForEachRunner() {
+        Budget budget = Budget.ofCases(3 * 65536 + 1);
+        Coverage coverage = Generator.forBudget(
+                budget, OperandSpace.binary8(), (first, second) -> {}, (first, second) -> {}, (first, second) -> {}
+        );
+
+        assertTrue(coverage.exhaustive);
+        assertEquals(1, budget.remaining());
+    }
+
+    @Test
+    public void testSparsePredicatesAreSampledWithoutRejection() {
+        Set<Integer> firsts = new HashSet<>();
+        Generator.forSome16bitBinaryBothSatisfying(
+                value -> value == 0x1234, value -> (value & 0xFFF) == 0,
+                (first, second) -> {
+                    firsts.add(first);
+                    assertTrue(String.valueOf(second), (second & 0xFFF) == 0);
+                }
+        );
+
+        assertEquals(Set.of(0x1234), firsts);
+    }
+
+    @Test
+    public void testEmptyPredicateFailsBeforeAnyCase() {
+        try {
+            Generator.forSome16bitBinaryFirstSatisfying(
+                    value -> false, (first, second) -> fail("No case can satisfy the predicate")
+            );
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
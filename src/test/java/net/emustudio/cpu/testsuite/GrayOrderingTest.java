@@ -0,0 +1,129 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.MemoryByte;
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class GrayOrderingTest {
+    private static final int FIRST_ADDRESS = 0x100;
+    private static final int SECOND_ADDRESS = 0x101;
+
+    @After
+    public void tearDown() {
+        Generator.setOrdering(Generator.Ordering.NATURAL);
+    }
+
+    @Test
+    public void testConsecutiveBinaryCasesDifferInOneBit() {
+        List<Integer> pairs = new ArrayList<>();
+        Generator.setOrdering(Generator.Ordering.GRAY);
+
+        Generator.forAll8bitBinary((first, second) -> pairs.add(((first & 0xFF) << 8) | (second & 0xFF)));
+
+        assertEquals(256 * 256, new HashSet<>(pairs).size());
+        for (int i = 1; i < pairs.size(); i++) {
+            assertEquals("case " + i, 1, Integer.bitCount(pairs.get(i - 1) ^ pairs.get(i)));
+        }
+    }
+
+    @Test
+    public void testConsecutiveUnaryCasesDifferInOneBit() {
+        List<Integer> operands = new ArrayList<>();
+        Generator.setOrdering(Generator.Ordering.GRAY);
+
+        Generator.forAll8bitUnary((first, second) -> operands.add(first & 0xFF));
+
+        assertEquals(256, new HashSet<>(operands).size());
+        for (int i = 1; i < operands.size(); i++) {
+            assertEquals("case " + i, 1, Integer.bitCount(operands.get(i - 1) ^ operands.get(i)));
+        }
+    }
+
+    @Test
+    public void testPersistentInjectorsRunOnlyWhenTheirOperandChanges() {
+        Generator.setOrdering(Generator.Ordering.GRAY);
+        CountingMemoryByte firstInjector = new CountingMemoryByte(FIRST_ADDRESS);
+        CountingMemoryByte secondInjector = new CountingMemoryByte(SECOND_ADDRESS);
+
+        Generator.forAll8bitBinary(memoryRunner(firstInjector, secondInjector).injectIncrementally());
+
+        // the first operand changes once per row; the second one does not change between rows
+        assertEquals(256, firstInjector.calls);
+        assertEquals(256 * 256 - 255, secondInjector.calls);
+    }
+
+    @Test
+    public void testAllInjectorsRunWithoutIncrementalInjection() {
+        Generator.setOrdering(Generator.Ordering.GRAY);
+        CountingMemoryByte firstInjector = new CountingMemoryByte(FIRST_ADDRESS);
+        CountingMemoryByte secondInjector = new CountingMemoryByte(SECOND_ADDRESS);
+
+        Generator.forAll8bitBinary(memoryRunner(firstInjector, secondInjector));
+
+        assertEquals(256 * 256, firstInjector.calls);
+        assertEquals(256 * 256, secondInjector.calls);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TestRunner<StubCpuRunner, Byte> memoryRunner(CountingMemoryByte firstInjector,
+                                                               CountingMemoryByte secondInjector) {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        runner.injectNoOperand(new NoOperInstr<>(0));
+        runner.injectFirst(firstInjector);
+        runner.injectSecond(secondInjector);
+        runner.verifyAfterTest(context -> {
+            // skipped injectors must leave the memory of the current test case
+            assertEquals(context.getFirstAsInt(), cpuRunner.memoryStub.read(FIRST_ADDRESS).intValue() & 0xFF);
+            assertEquals(context.getSecondAsInt(), cpuRunner.memoryStub.read(SECOND_ADDRESS).intValue() & 0xFF);
+        });
+        return runner;
+    }
+
+    private static final class CountingMemoryByte extends MemoryByte<StubCpuRunner, Byte> {
+        private int calls;
+
+        CountingMemoryByte(int address) {
+            super(address);
+        }
+
+        @Override
+        public void accept(StubCpuRunner cpuRunner, Byte value) {
+            calls++;
+            super.accept(cpuRunner, value);
+        }
+
+        @Override
+        public void accept(StubCpuRunner cpuRunner, int value) {
+            calls++;
+            super.accept(cpuRunner, value);
+        }
+    }
+}
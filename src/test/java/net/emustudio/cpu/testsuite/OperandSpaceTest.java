@@ -0,0 +1,89 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import org.junit.Test;
+
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OperandSpaceTest {
+
+    @Test
+    public void testSpacesHaveExactSizes() {
+        assertEquals(256, OperandSpace.unary8().size());
+        assertEquals(65536, OperandSpace.binary8().size());
+        assertEquals(256, OperandSpace.binary8WhichEqual().size());
+        assertEquals(1L << 32, OperandSpace.binary16().size());
+        assertEquals((65536L - 0x100) * (65536 - 0x200), OperandSpace.binary16(0x100, 0x200).size());
+        assertEquals(1L << 32, OperandSpace.unary32().size());
+        assertEquals(32768L * 65536, OperandSpace.binary16FirstSatisfying(value -> (value & 1) == 0).size());
+        assertEquals(
+                OperandSpace.binary16().size(), OperandSpace.binary16().spliterator().getExactSizeIfKnown()
+        );
+    }
+
+    @Test
+    public void testPairsAreEnumeratedInOrder() {
+        long[] pairs = OperandSpace.binary8().stream().toArray();
+        long[] equalPairs = OperandSpace.binary8WhichEqual().stream().toArray();
+
+        for (int i = 0; i < pairs.length; i++) {
+            assertEquals(OperandPair.pack(i >>> 8, i & 0xFF), pairs[i]);
+        }
+        for (int i = 0; i < equalPairs.length; i++) {
+            assertEquals(OperandPair.pack(i, i), equalPairs[i]);
+        }
+    }
+
+    @Test
+    public void testSkipAndLimitStartAtAnyOffset() {
+        OperandSpace<Integer> space = OperandSpace.binary16().skip((1L << 31) + 5).limit(3);
+
+        assertEquals(3, space.size());
+        assertArrayEquals(new long[]{
+                OperandPair.pack(0x8000, 5), OperandPair.pack(0x8000, 6), OperandPair.pack(0x8000, 7)
+        }, space.stream().toArray());
+        assertEquals(OperandPair.pack(0x8000, 6), space.get(1));
+        assertEquals(0, space.skip(10).size());
+    }
+
+    @Test
+    public void testSplitsAreBalanced() {
+        Spliterator.OfLong suffix = OperandSpace.binary16().limit(7).spliterator();
+        Spliterator.OfLong prefix = suffix.trySplit();
+
+        assertEquals(3, prefix.getExactSizeIfKnown());
+        assertEquals(4, suffix.getExactSizeIfKnown());
+        assertEquals(OperandPair.pack(0, 3), OperandSpace.binary16().limit(7).stream().skip(3).findFirst().getAsLong());
+    }
+
+    @Test
+    public void testParallelStreamCoversSpace() {
+        OperandSpace<Byte> space = OperandSpace.binary8();
+        long[] sorted = space.parallelStream().filter(pair -> OperandPair.first(pair) != 7).sorted().toArray();
+
+        assertArrayEquals(space.stream().filter(pair -> OperandPair.first(pair) != 7).toArray(), sorted);
+        assertEquals(65536 - 256, sorted.length);
+        assertEquals(65536, LongStream.of(space.parallelStream().toArray()).distinct().count());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PairBitmapTest {
+
+    @Test
+    public void testAddedPairsAreContained() {
+        PairBitmap bitmap = new PairBitmap();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 200000; i++) {
+            // dense, sparse and run-like regions, so all kinds of containers are used
+            long pair;
+            switch (i % 3) {
+                case 0:
+                    pair = random.nextInt(1 << 17);
+                    break;
+                case 1:
+                    pair = OperandPair.pack(random.nextInt(), random.nextInt());
+                    break;
+                default:
+                    pair = (5L << 16) + (i % 7000) * 3 + (i % 2);
+                    break;
+            }
+            assertEquals(expected.add(pair), bitmap.add(pair));
+        }
+
+        assertEquals(expected.size(), bitmap.getCardinality());
+        for (long pair : expected) {
+            assertTrue(bitmap.contains(pair));
+        }
+        for (int i = 0; i < 100000; i++) {
+            long pair = random.nextInt(1 << 18);
+            assertEquals(expected.contains(pair), bitmap.contains(pair));
+        }
+    }
+
+    @Test
+    public void testFullySetContainersAreCompressed() {
+        PairBitmap bitmap = new PairBitmap();
+        for (int first = 0; first < 64; first++) {
+            for (int second = 0; second < 65536; second++) {
+                bitmap.add(OperandPair.pack(first, second));
+            }
+        }
+
+        assertEquals(64 * 65536, bitmap.getCardinality());
+        assertTrue(bitmap.getSizeInBytes() < 64 * 64);
+        assertFalse(bitmap.contains(OperandPair.pack(64, 0)));
+    }
+
+    @Test
+    public void testRandomlyOrderedFullContainerIsCompressed() {
+        PairBitmap bitmap = new PairBitmap();
+        for (int i = 0; i < 65536; i++) {
+            bitmap.add((i * 40503) & 0xFFFF); // odd stride visits each value once
+        }
+
+        assertEquals(65536, bitmap.getCardinality());
+        assertTrue(bitmap.getSizeInBytes() < 64);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelSweepTest {
+
+    @After
+    public void tearDown() {
+        Generator.setParallelism(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEveryPairIsRunOnceByRunnersOfSingleWorker() {
+        AtomicIntegerArray runs = new AtomicIntegerArray(65536);
+        Set<Thread> workers = ConcurrentHashMap.newKeySet();
+        AtomicInteger sharedRunners = new AtomicInteger();
+
+        Generator.setParallelism(4);
+        Generator.forAll8bitBinaryInParallel(() -> {
+            StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+            TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+            AtomicReference<Thread> owner = new AtomicReference<>();
+            runner.injectNoOperand(new NoOperInstr<>(0x80));
+            runner.verifyAfterTest(context -> {
+                Thread previous = owner.getAndSet(Thread.currentThread());
+                if (previous != null && previous != Thread.currentThread()) {
+                    sharedRunners.incrementAndGet();
+                }
+                workers.add(Thread.currentThread());
+                runs.incrementAndGet((context.getFirstAsInt() << 8) | context.getSecondAsInt());
+            });
+            return List.of(runner);
+        });
+
+        for (int i = 0; i < runs.length(); i++) {
+            assertEquals("pair " + Integer.toHexString(i), 1, runs.get(i));
+        }
+        assertEquals(0, sharedRunners.get());
+        assertTrue(workers.size() <= 4);
+    }
+
+    @Test
+    public void testFailureCancelsRemainingRows() {
+        AssertionError boom = new AssertionError("boom");
+        AtomicInteger startedRows = new AtomicInteger();
+
+        BiConsumer<Integer, Integer> runner = (first, second) -> {
+            if (second == 0) {
+                startedRows.incrementAndGet();
+            }
+            if (first == 3) {
+                throw boom;
+            }
+        };
+
+        Generator.setParallelism(4);
+        try {
+            Generator.forAll16bitBinaryInParallel(() -> List.of(runner));
+            fail("The sweep should fail");
+        } catch (AssertionError e) {
+            assertSame(boom, e);
+        }
+        assertTrue("started rows: " + startedRows.get(), startedRows.get() < 64);
+    }
+}
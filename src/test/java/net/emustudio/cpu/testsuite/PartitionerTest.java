@@ -0,0 +1,75 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.cpu.testsuite.verifiers.FlagsVerifier;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class PartitionerTest {
+
+    private static final class TestFlags extends FlagsCheck<Byte, TestFlags> {
+    }
+
+    // flags are 0, 31, 1 and again 0 in ranges of the first operand; with transitions (0 -> 31) and (1 -> 0),
+    // a key (class * 31 + next class) would collide
+    private static int flagsOf(int first) {
+        return (first < 10) ? 0 : (first < 20) ? 31 : (first < 30) ? 1 : 0;
+    }
+
+    @Test
+    public void testEveryTransitionBetweenClassesHasBoundary() {
+        ShortMemoryStub memoryStub = new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+        TestFlags flags = new TestFlags();
+        for (int bit = 0; bit < 5; bit++) {
+            int flag = 1 << bit;
+            flags.expectFlagOnlyWhen(flag, (context, result) -> (flagsOf(context.getFirstAsInt()) & flag) != 0);
+        }
+        CpuVerifier cpuVerifier = new CpuVerifier(memoryStub) {
+            @Override
+            public void checkFlags(int mask) {
+            }
+
+            @Override
+            public void checkNotFlags(int mask) {
+            }
+        };
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(new StubCpuRunner(memoryStub), OperandType.BYTE);
+        runner.verifyAfterTest(new FlagsVerifier<>(cpuVerifier, (first, second) -> first, flags));
+
+        long[] plan = new Partitioner(OperandType.BYTE, new OperandPairConsumer[]{runner})
+                .plan(LongStream.range(0, 256).map(first -> OperandPair.pack((int) first, 0)), 1, true);
+
+        Set<Integer> firstOperands = Arrays.stream(plan)
+                .mapToObj(OperandPair::first)
+                .collect(Collectors.toCollection(TreeSet::new));
+        // class members 0, 10, 20; boundaries (9, 10), (19, 20), (29, 30)
+        assertEquals(Set.of(0, 9, 10, 19, 20, 29, 30), firstOperands);
+        assertEquals(7, plan.length);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SeededRandomTest {
+    private static final long[] SEEDS = {0, 1, -1, 0x9e3779b97f4a7c15L, Long.MIN_VALUE, Long.MAX_VALUE};
+
+    @Test
+    public void testPrintedSeedIsReadBackFromProperty() {
+        String previous = System.getProperty(SeededRandom.SEED_PROPERTY);
+        try {
+            for (long seed : SEEDS) {
+                // the same format as in the message of a failed random test case
+                System.setProperty(SeededRandom.SEED_PROPERTY, String.format("0x%016x", seed));
+                assertEquals(seed, SeededRandom.defaultSeed());
+            }
+        } finally {
+            if (previous == null) {
+                System.clearProperty(SeededRandom.SEED_PROPERTY);
+            } else {
+                System.setProperty(SeededRandom.SEED_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    public void testDecimalSeed() {
+        for (long seed : SEEDS) {
+            assertEquals(seed, SeededRandom.parseSeed(" " + seed + " "));
+        }
+    }
+}
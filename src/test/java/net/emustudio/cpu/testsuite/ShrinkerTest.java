@@ -0,0 +1,84 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShrinkerTest {
+
+    @SuppressWarnings("unchecked")
+    private static TestRunner<StubCpuRunner, Byte> newRunner() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        runner.injectNoOperand(new NoOperInstr<>(0x80));
+        runner.verifyAfterTest(context -> {
+            if (context.getFirstAsInt() >= 0x40) {
+                throw new AssertionError("big " + context.getFirstAsInt());
+            }
+        });
+        runner.verifyAfterTest(context -> {
+            if ((context.getFirstAsInt() & 1) != 0) {
+                throw new AssertionError("odd " + context.getFirstAsInt());
+            }
+        });
+        return runner;
+    }
+
+    @Test
+    public void testOperandsAreShrunkWhileTheSameVerifierFails() {
+        TestRunner<StubCpuRunner, Byte> runner = newRunner();
+        Throwable failure = runner.rerun(0x41, 0, -1, true);
+
+        // odd values smaller than 0x41 fail too, but in another verifier
+        Throwable shrunk = Shrinker.shrink(runner, 0x41, 0, failure, 256);
+
+        assertEquals("big 64", shrunk.getMessage());
+        assertEquals(failure, shrunk.getSuppressed()[0]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRunnerWhichHasThrownIsShrunk() {
+        // the reporting runner fails in every test case, without throwing
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> reporting = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        reporting.injectNoOperand(new NoOperInstr<>(0x80));
+        reporting.verifyAfterTest(context -> {
+            throw new AssertionError("reported");
+        });
+        FailureReport report = new FailureReport(1);
+        reporting.collectFailures(report);
+
+        Generator.setSeed(1);
+        try {
+            Generator.forSome8bitUnary(reporting, newRunner());
+            fail("Some random operand should fail");
+        } catch (AssertionError e) {
+            assertEquals("big 64", e.getMessage()); // seed 1 fails first with operand 0xC1
+            assertTrue(report.getFailures() > 0);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SnapshotTest {
+
+    @Test
+    public void testRestoreBringsBackRegistersFlagsAndMemory() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+        cpuRunner.setByte(0x1234, 0x56);
+        cpuRunner.setRegister(2, 0x77);
+        cpuRunner.setFlags(0x81);
+        CpuRunner.Snapshot snapshot = cpuRunner.snapshot();
+
+        cpuRunner.setByte(0x1234, 0x99);
+        cpuRunner.setByte(0x4321, 0x11);
+        cpuRunner.setRegister(2, 0);
+        cpuRunner.setFlags(0);
+        cpuRunner.restore(snapshot);
+
+        assertEquals(0x56, cell(cpuRunner, 0x1234));
+        assertEquals(0, cell(cpuRunner, 0x4321));
+        assertEquals(0x77, (int) cpuRunner.getRegisters().get(2));
+        assertEquals(0x81, cpuRunner.getFlags());
+    }
+
+    @Test
+    public void testDirtyPagesAreRestoredAgain() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+        cpuRunner.setByte(0x100, 0x42);
+        CpuRunner.Snapshot snapshot = cpuRunner.snapshot();
+
+        for (int i = 1; i <= 3; i++) {
+            cpuRunner.restore(snapshot);
+            assertEquals(0x42, cell(cpuRunner, 0x100));
+            assertEquals(0, cell(cpuRunner, 0x2000));
+            assertEquals(0, cell(cpuRunner, 0x3000));
+
+            // injected memory, and memory written by the CPU directly
+            cpuRunner.setByte(0x100, i);
+            cpuRunner.setByte(0x2000, i);
+            cpuRunner.memoryStub.writeByte(0x3000, i);
+        }
+    }
+
+    @Test
+    public void testMemoryGrownSinceSnapshotIsCleared() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+        cpuRunner.setByte(0x100, 0x42);
+        CpuRunner.Snapshot snapshot = cpuRunner.snapshot();
+
+        cpuRunner.setByte(0x1FFFF, 0x55);
+        cpuRunner.restore(snapshot);
+
+        assertEquals(0x42, cell(cpuRunner, 0x100));
+        assertEquals(0, cell(cpuRunner, 0x1FFFF));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFixtureIsRestoredBeforeEachTestCase() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+        cpuRunner.setByte(0x300, 0x99);
+        cpuRunner.setRegister(2, 0x77);
+        CpuRunner.Snapshot fixture = cpuRunner.snapshot();
+
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        runner.restoreBeforeEachTest(fixture);
+        runner.injectNoOperand(new NoOperInstr<>(0));
+        runner.injectFirstAsInt((tmpRunner, first) -> tmpRunner.setByte(0x200, first));
+        List<Integer> fixtureValues = new ArrayList<>();
+        runner.verifyAfterTest(context -> {
+            fixtureValues.add(context.getRegister(2));
+            fixtureValues.add(cell(cpuRunner, 0x300));
+            assertEquals(context.getFirstAsInt(), cell(cpuRunner, 0x200));
+
+            // as if the instruction changed the fixture
+            cpuRunner.setRegister(2, 0);
+            cpuRunner.memoryStub.writeByte(0x300, 0);
+        });
+
+        for (int first = 1; first < 4; first++) {
+            runner.acceptOperands(first, 0);
+        }
+
+        assertEquals(List.of(0x77, 0x99, 0x77, 0x99, 0x77, 0x99), fixtureValues);
+    }
+
+    private static int cell(CpuRunner<?> cpuRunner, int address) {
+        return cpuRunner.memoryStub.read(address).intValue();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.memory.MemoryStub;
+import net.emustudio.emulib.plugins.cpu.CPU;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CPU runner of a stub CPU, which records flags at each step (unless disabled), and then inverts them.
+ *
+ * If the stub CPU executes the program, it knows a single instruction: opcode 1 followed by a byte, which is loaded
+ * into register 0. Any other opcode jumps to address 0. Otherwise, PC stays at address 0.
+ *
+ * Steps of the stub CPU do not allocate, if flags are not recorded.
+ */
+class StubCpuRunner extends CpuRunner<CPU> {
+    static final int LOAD_OPCODE = 1;
+
+    final List<Integer> flagsAtStep = new ArrayList<>();
+    private final int[] registers = new int[4];
+    private int flags;
+    private int pc;
+    int resets;
+
+    StubCpuRunner(MemoryStub<?> memoryStub) {
+        this(memoryStub, true);
+    }
+
+    StubCpuRunner(MemoryStub<?> memoryStub, boolean recordFlags) {
+        this(new ArrayList<>(), memoryStub, recordFlags, false);
+    }
+
+    static StubCpuRunner executing(MemoryStub<?> memoryStub) {
+        return new StubCpuRunner(new ArrayList<>(), memoryStub, false, true);
+    }
+
+    private StubCpuRunner(List<CPU.CPUListener> listeners, MemoryStub<?> memoryStub, boolean recordFlags,
+                          boolean executeProgram) {
+        super(stubCpu(listeners), memoryStub);
+        listeners.add(new CPU.CPUListener() {
+            @Override
+            public void runStateChanged(CPU.RunState runState) {
+                if (recordFlags) {
+                    flagsAtStep.add(flags);
+                }
+                flags = ~flags & 0xFF;
+                if (executeProgram) {
+                    execute();
+                }
+            }
+
+            @Override
+            public void internalStateChanged() {
+            }
+        });
+    }
+
+    private static CPU stubCpu(List<CPU.CPUListener> listeners) {
+        ClassLoader classLoader = CPU.class.getClassLoader();
+        return (CPU) Proxy.newProxyInstance(classLoader, new Class<?>[]{CPU.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "addCPUListener":
+                    return listeners.add((CPU.CPUListener) args[0]);
+                case "step":
+                    for (int i = 0; i < listeners.size(); i++) {
+                        listeners.get(i).runStateChanged(CPU.RunState.STATE_STOPPED_BREAK);
+                    }
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StubCpu";
+                default:
+                    Class<?> type = method.getReturnType();
+                    if (type == boolean.class) {
+                        return false;
+                    } else if (type == int.class) {
+                        return 0;
+                    } else if (type == long.class) {
+                        return 0L;
+                    }
+                    return null;
+            }
+        });
+    }
+
+    private void execute() {
+        if ((memoryStub.read(pc).intValue() & 0xFF) == LOAD_OPCODE) {
+            registers[0] = memoryStub.read(pc + 1).intValue() & 0xFF;
+            pc += 2;
+        } else {
+            pc = 0;
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        flags = 0;
+        pc = 0;
+        resets++;
+    }
+
+    @Override
+    public int getPC() {
+        return pc;
+    }
+
+    @Override
+    public int getSP() {
+        return 0;
+    }
+
+    @Override
+    public List<Integer> getRegisters() {
+        List<Integer> result = new ArrayList<>();
+        for (int register : registers) {
+            result.add(register);
+        }
+        return result;
+    }
+
+    @Override
+    public int[] getRegisters(int[] registers) {
+        if (registers.length != this.registers.length) {
+            registers = new int[this.registers.length];
+        }
+        System.arraycopy(this.registers, 0, registers, 0, registers.length);
+        return registers;
+    }
+
+    @Override
+    public void setRegister(int register, int value) {
+        registers[register] = value;
+    }
+
+    @Override
+    public void setFlags(int mask) {
+        flags = mask;
+    }
+
+    @Override
+    public int getFlags() {
+        return flags;
+    }
+}
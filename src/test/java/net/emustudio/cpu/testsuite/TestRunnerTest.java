@@ -0,0 +1,182 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite;
+
+import net.emustudio.cpu.testsuite.injectors.NoOperInstr;
+import net.emustudio.cpu.testsuite.injectors.OneOperInstr;
+import net.emustudio.cpu.testsuite.injectors.TwoOperInstr;
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestRunnerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHoistedSetFlagsIsNotOverwrittenByFlagsOfPreviousCase() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        runner.injectNoOperand(tmpRunner -> tmpRunner.setFlags(0x42), new NoOperInstr<>(0));
+        runner.injectFirstAsInt((tmpRunner, first) -> tmpRunner.setRegister(0, first));
+        runner.hoistInvariantInjectors();
+
+        for (int first = 0; first < 10; first++) {
+            runner.acceptOperands(first, 0);
+        }
+
+        assertEquals(Collections.nCopies(10, 0x42), cpuRunner.flagsAtStep);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHoistingKeepsFlagsOfPreviousCaseWithoutSetFlags() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        runner.injectNoOperand(new NoOperInstr<>(0));
+        runner.injectFirstAsInt((tmpRunner, first) -> tmpRunner.setRegister(0, first));
+        runner.hoistInvariantInjectors();
+
+        for (int first = 0; first < 4; first++) {
+            runner.acceptOperands(first, 0);
+        }
+
+        assertEquals(List.of(0, 0xFF, 0, 0xFF), cpuRunner.flagsAtStep);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNewContextHasPublicFieldsFilled() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Integer> runner = new TestRunner<>(cpuRunner, OperandType.WORD);
+        List<RunnerContext<Integer>> contexts = new ArrayList<>();
+        runner.injectNoOperand(new NoOperInstr<>(0));
+        runner.injectFirstAsInt((tmpRunner, first) -> tmpRunner.setRegister(1, first));
+        runner.verifyAfterTest(contexts::add);
+
+        runner.acceptOperands(0x1234, 0x5678);
+        runner.acceptOperands(0x9ABC, 0xDEF0);
+
+        assertNotSame(contexts.get(0), contexts.get(1));
+        RunnerContext<Integer> context = contexts.get(0);
+        assertEquals(0x1234, (int) context.first);
+        assertEquals(0x5678, (int) context.second);
+        assertEquals(0x1234, context.getRegister(1));
+        assertEquals(context.flags, context.getFlags());
+        assertEquals(0x9ABC, (int) contexts.get(1).first);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReusedContextIsFilledInPlace() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN));
+        TestRunner<StubCpuRunner, Integer> runner = new TestRunner<>(cpuRunner, OperandType.WORD);
+        runner.reuseContext();
+        List<RunnerContext<Integer>> contexts = new ArrayList<>();
+        List<RunnerContext<Integer>> copies = new ArrayList<>();
+        runner.injectNoOperand(new NoOperInstr<>(0));
+        runner.injectFirstAsInt((tmpRunner, first) -> tmpRunner.setRegister(1, first));
+        runner.verifyAfterTest(context -> {
+            contexts.add(context);
+            copies.add(context.copy());
+        });
+
+        runner.acceptOperands(0x1234, 0x5678);
+        runner.acceptOperands(0x9ABC, 0xDEF0);
+
+        assertSame(contexts.get(0), contexts.get(1));
+        assertEquals(0x9ABC, (int) contexts.get(1).getFirst());
+        assertEquals(0xDEF0, contexts.get(1).getSecondAsInt());
+        assertEquals(0x9ABC, contexts.get(1).getRegister(1));
+        assertEquals(0x1234, (int) copies.get(0).first);
+        assertEquals(0x5678, (int) copies.get(0).second);
+        assertEquals(0x1234, copies.get(0).getRegister(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTestCaseWithInstructionInjectorsDoesNotAllocate() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+        TestRunner<StubCpuRunner, Integer> runner = new TestRunner<>(cpuRunner, OperandType.WORD);
+        runner.reuseContext();
+        runner.injectTwoOperands(new TwoOperInstr<StubCpuRunner, Integer>(0xDD, 0xCB).placeOpcodesAfterOperands(0x06));
+        runner.injectSecond(new OneOperInstr<>(0x3E));
+        runner.injectFirstAsInt((tmpRunner, first) -> tmpRunner.setRegister(0, first));
+        runner.verifyAfterTest(context -> assertEquals(context.getFirstAsInt(), context.getRegister(0)));
+
+        runner.acceptOperands(0xFFFF, 0xFFFF); // the largest operands grow the program and its page sets once
+
+        // JIT compilation of the runner may allocate during warm-up
+        AllocationBudget budget = new AllocationBudget(0, 50000);
+        AllocationBudget.Recorder recorder = budget.newRecorder();
+        for (int i = 0; i < 60000; i++) {
+            long start = recorder.start();
+            runner.acceptOperands((i * 31) & 0xFFFF, (i * 17) & 0xFFFF);
+            recorder.stop(0, start);
+        }
+
+        // an object takes at least 16 bytes, so less than a byte per test case rules out allocating in test cases,
+        // but tolerates rare allocations of the JVM itself (e.g. when the runner is deoptimized)
+        AllocationBudget.OpcodeAllocations allocations = budget.getAllocations().get(0);
+        assertTrue(budget.toString(), allocations.totalBytes < allocations.steps);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMemoryWrittenByInstructionIsRestoredBeforeNextCase() {
+        ShortMemoryStub memoryStub = new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+        StubCpuRunner cpuRunner = new StubCpuRunner(memoryStub, false);
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        List<Integer> cellsBefore = new ArrayList<>();
+        runner.injectFirst(new OneOperInstr<>(0x32));
+        runner.verifyAfterTest(context -> {
+            cellsBefore.add(memoryStub.read(0x8000).intValue());
+            // as if the instruction wrote memory
+            memoryStub.writeByte(0x8000, context.getFirstAsInt());
+        });
+
+        for (int first = 1; first < 4; first++) {
+            runner.acceptOperands(first, 0);
+        }
+
+        assertEquals(List.of(0, 0, 0), cellsBefore);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testToStringDescribesCurrentInjectors() {
+        StubCpuRunner cpuRunner = new StubCpuRunner(new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN), false);
+        TestRunner<StubCpuRunner, Byte> runner = new TestRunner<>(cpuRunner, OperandType.BYTE);
+        NoOperInstr<StubCpuRunner> instruction = new NoOperInstr<>(0x80);
+
+        assertEquals("TestRunner{unknown instruction}", runner.toString());
+        runner.injectNoOperand(instruction);
+        assertEquals("TestRunner{" + instruction + "}", runner.toString());
+        runner.acceptOperands(0, 0);
+        assertEquals("TestRunner{" + instruction + "}", runner.toString());
+    }
+}
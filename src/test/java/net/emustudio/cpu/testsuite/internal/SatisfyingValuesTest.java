@@ -0,0 +1,82 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.internal;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SatisfyingValuesTest {
+
+    @Test
+    public void testIndexHoldsSatisfyingValuesInOrder() {
+        SatisfyingValues pageAligned = SatisfyingValues.of16bit(value -> (value & 0xFF) == 0);
+
+        assertEquals(256, pageAligned.size());
+        for (int k = 0; k < pageAligned.size(); k++) {
+            assertEquals(k << 8, pageAligned.get(k));
+        }
+    }
+
+    @Test
+    public void testPredicateIsEvaluatedOncePerValue() {
+        AtomicInteger calls = new AtomicInteger();
+        Predicate<Integer> odd = value -> {
+            calls.incrementAndGet();
+            return (value & 1) == 1;
+        };
+
+        SatisfyingValues index = SatisfyingValues.of16bit(odd);
+        assertEquals(0x10000, calls.get());
+        assertSame(index, SatisfyingValues.of16bit(odd));
+        assertEquals(0x10000, calls.get());
+    }
+
+    @Test
+    public void testSamplesSatisfyPredicate() {
+        Predicate<Integer> bcd = value -> (value & 0xF) <= 9 && ((value >>> 4) & 0xF) <= 9
+                && ((value >>> 8) & 0xF) <= 9 && ((value >>> 12) & 0xF) <= 9;
+        SatisfyingValues index = SatisfyingValues.of16bit(bcd);
+
+        assertEquals(10000, index.size());
+        long bits = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < 10000; i++) {
+            bits = bits * 6364136223846793005L + 1442695040888963407L;
+            assertTrue(bcd.test(index.sample(bits)));
+        }
+        assertEquals(0, index.sample(0));
+        assertEquals(0x9999, index.sample(-1L));
+    }
+
+    @Test
+    public void testEmptyDomainFailsFast() {
+        try {
+            SatisfyingValues.of16bit(value -> value > 0xFFFF);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("No 16-bit value satisfies"));
+        }
+    }
+}
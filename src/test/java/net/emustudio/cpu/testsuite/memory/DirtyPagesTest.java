@@ -0,0 +1,97 @@
+/*
+ * This file is part of cpu-testsuite.
+ *
+ * Copyright (C) 2017-2023  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.cpu.testsuite.memory;
+
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class DirtyPagesTest {
+    private static final int PAGE_SIZE = 1 << MemoryStub.PAGE_BITS;
+    private static final int SIZE = 0x10000;
+
+    @Test
+    public void testOnlyChangedPagesAreCopied() {
+        for (MemoryStub<?> stub : stubs()) {
+            short[] baseline = new short[SIZE];
+            stub.setMemory(baseline);
+
+            baseline[0x10] = 0x11;
+            baseline[3 * PAGE_SIZE] = 0x22;
+            stub.setMemory(baseline, pages(0));
+
+            assertEquals(0x11, cell(stub, 0x10));
+            // the page was not reported as changed
+            assertEquals(0, cell(stub, 3 * PAGE_SIZE));
+        }
+    }
+
+    @Test
+    public void testWrittenPagesAreRestoredToBaseline() {
+        for (MemoryStub<?> stub : stubs()) {
+            short[] baseline = new short[SIZE];
+            baseline[5 * PAGE_SIZE + 1] = 0x33;
+            stub.setMemory(baseline);
+
+            // the tested instruction writes memory
+            stub.writeByte(5 * PAGE_SIZE + 1, 0x44);
+            stub.writeByte(0xFFFF, 0x55);
+            stub.setMemory(baseline, new BitSet());
+
+            assertEquals(0x33, cell(stub, 5 * PAGE_SIZE + 1));
+            assertEquals(0, cell(stub, 0xFFFF));
+        }
+    }
+
+    @Test
+    public void testWholeMemoryIsSetWhenSizeChanges() {
+        for (MemoryStub<?> stub : stubs()) {
+            stub.setMemory(new short[PAGE_SIZE]);
+
+            short[] grown = new short[SIZE];
+            grown[SIZE - 1] = 0x66;
+            stub.setMemory(grown, new BitSet());
+
+            assertEquals(SIZE, stub.getSize());
+            assertEquals(0x66, cell(stub, SIZE - 1));
+        }
+    }
+
+    private static MemoryStub<?>[] stubs() {
+        return new MemoryStub<?>[]{
+                new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN),
+                new ByteMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN)
+        };
+    }
+
+    private static BitSet pages(int... pages) {
+        BitSet result = new BitSet();
+        for (int page : pages) {
+            result.set(page);
+        }
+        return result;
+    }
+
+    private static int cell(MemoryStub<?> stub, int address) {
+        return stub.read(address).intValue() & 0xFF;
+    }
+}